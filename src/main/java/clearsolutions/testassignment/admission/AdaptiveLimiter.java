@@ -0,0 +1,98 @@
+package clearsolutions.testassignment.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limiter with an AIMD limit: every request that finishes within its latency target grows the limit by
+ * {@code 1 / limit} while the limiter is busy, and a request that overshoots shrinks it by {@code backoffRatio}.
+ * Only requests that started after the last decrease can shrink it again, so a burst of requests slowed down by the
+ * same stall, such as a GC pause, backs off once rather than once per request.
+ */
+public class AdaptiveLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private long lastBackoffNanos = System.nanoTime();
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Takes a slot if fewer than {@code share} of the current limit are in use.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a slot taken by {@link #tryAcquire} and feeds the outcome into the limit.
+     *
+     * @param startNanos {@link System#nanoTime()} at which the request was admitted
+     */
+    public void release(long startNanos, boolean overloaded) {
+        int busy = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (overloaded) {
+                if (startNanos - lastBackoffNanos >= 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastBackoffNanos = System.nanoTime();
+                }
+            } else if (busy * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    /**
+     * Returns a slot taken by {@link #tryAcquire} without affecting the limit, for requests that never ran. The
+     * request no longer counts as accepted.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+        accepted.decrement();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
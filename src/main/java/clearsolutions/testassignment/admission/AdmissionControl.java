@@ -0,0 +1,131 @@
+package clearsolutions.testassignment.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Admits user API requests against a per-endpoint limiter and a global limiter shared by all endpoints.
+ * The global limiter only lets each {@link Priority} fill its share of the limit, so sheddable scans are turned
+ * away before cheap lookups are.
+ */
+public class AdmissionControl implements MeterBinder {
+
+    public enum Rejection {
+        /**
+         * The endpoint is at its own concurrency limit.
+         */
+        ENDPOINT_LIMIT,
+        /**
+         * The server as a whole is overloaded for requests of this priority.
+         */
+        OVERLOADED
+    }
+
+    private final AdaptiveLimiter global;
+    private final Map<AdmissionEndpoint, AdaptiveLimiter> limiters = new EnumMap<>(AdmissionEndpoint.class);
+    private final Map<AdmissionEndpoint, Long> targetLatencyNanos = new EnumMap<>(AdmissionEndpoint.class);
+    private final Permit endpointLimitRejection = new Permit(Rejection.ENDPOINT_LIMIT);
+    private final Permit overloadedRejection = new Permit(Rejection.OVERLOADED);
+
+    public AdmissionControl(AdaptiveLimiter global, Function<AdmissionEndpoint, AdaptiveLimiter> limiterFactory,
+                            Function<AdmissionEndpoint, Duration> targetLatency) {
+        this.global = global;
+        for (AdmissionEndpoint endpoint : AdmissionEndpoint.values()) {
+            limiters.put(endpoint, limiterFactory.apply(endpoint));
+            targetLatencyNanos.put(endpoint, targetLatency.apply(endpoint).toNanos());
+        }
+    }
+
+    /**
+     * @return a permit that must be released when the request completes, or a shared rejected permit
+     */
+    public Permit tryAcquire(AdmissionEndpoint endpoint) {
+        AdaptiveLimiter limiter = limiters.get(endpoint);
+        if (!limiter.tryAcquire(1.0)) {
+            return endpointLimitRejection;
+        }
+        if (!global.tryAcquire(endpoint.getPriority().getShare())) {
+            limiter.cancel();
+            return overloadedRejection;
+        }
+        return new Permit(endpoint, limiter);
+    }
+
+    public AdaptiveLimiter getGlobalLimiter() {
+        return global;
+    }
+
+    public AdaptiveLimiter getLimiter(AdmissionEndpoint endpoint) {
+        return limiters.get(endpoint);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<AdaptiveLimiter> all = new ArrayList<>(limiters.values());
+        all.add(global);
+        for (AdaptiveLimiter limiter : all) {
+            Gauge.builder("admission.limit", limiter, AdaptiveLimiter::getLimit)
+                    .tag("limiter", limiter.getName())
+                    .description("Current adaptive concurrency limit")
+                    .register(registry);
+            Gauge.builder("admission.inflight", limiter, AdaptiveLimiter::getInFlight)
+                    .tag("limiter", limiter.getName())
+                    .description("Requests currently holding a permit")
+                    .register(registry);
+            FunctionCounter.builder("admission.accepted", limiter, AdaptiveLimiter::getAccepted)
+                    .tag("limiter", limiter.getName())
+                    .register(registry);
+            FunctionCounter.builder("admission.rejected", limiter, AdaptiveLimiter::getRejected)
+                    .tag("limiter", limiter.getName())
+                    .register(registry);
+        }
+    }
+
+    public class Permit {
+
+        private final AdmissionEndpoint endpoint;
+        private final AdaptiveLimiter limiter;
+        private final Rejection rejection;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdmissionEndpoint endpoint, AdaptiveLimiter limiter) {
+            this.endpoint = endpoint;
+            this.limiter = limiter;
+            this.rejection = null;
+        }
+
+        private Permit(Rejection rejection) {
+            this.endpoint = null;
+            this.limiter = null;
+            this.rejection = rejection;
+        }
+
+        public boolean isAdmitted() {
+            return rejection == null;
+        }
+
+        public Rejection getRejection() {
+            return rejection;
+        }
+
+        public void release() {
+            if (!isAdmitted() || !released.compareAndSet(false, true)) {
+                return;
+            }
+            boolean overloaded = System.nanoTime() - startNanos > targetLatencyNanos.get(endpoint);
+            limiter.release(startNanos, overloaded);
+            global.release(startNanos, overloaded);
+        }
+    }
+}
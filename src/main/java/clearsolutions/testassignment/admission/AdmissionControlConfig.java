@@ -0,0 +1,59 @@
+package clearsolutions.testassignment.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Value("${admission.global.initial-limit}")
+    private int globalInitialLimit;
+
+    @Value("${admission.global.max-limit}")
+    private int globalMaxLimit;
+
+    @Value("${admission.endpoint.initial-limit}")
+    private int endpointInitialLimit;
+
+    @Value("${admission.endpoint.max-limit}")
+    private int endpointMaxLimit;
+
+    @Value("${admission.min-limit}")
+    private int minLimit;
+
+    @Value("${admission.backoff-ratio}")
+    private double backoffRatio;
+
+    @Value("${admission.retry-after}")
+    private Duration retryAfter;
+
+    @Bean
+    public AdmissionControl admissionControl(Environment environment) {
+        AdaptiveLimiter global = new AdaptiveLimiter("global", globalInitialLimit, minLimit, globalMaxLimit,
+                backoffRatio);
+        return new AdmissionControl(global,
+                endpoint -> new AdaptiveLimiter(endpoint.getKey(), endpointInitialLimit, minLimit, endpointMaxLimit,
+                        backoffRatio),
+                endpoint -> environment.getProperty("admission.endpoint." + endpoint.getKey() + ".target-latency",
+                        Duration.class, endpoint.getDefaultTargetLatency()));
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionControl admissionControl,
+                                                                                 ObjectMapper objectMapper) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(admissionControl, objectMapper, retryAfter.toSeconds()));
+        registration.addUrlPatterns("/api/user", "/api/user/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,103 @@
+package clearsolutions.testassignment.admission;
+
+import clearsolutions.testassignment.exception.error.ApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds user API requests that {@link AdmissionControl} does not admit with 429 when the endpoint is at its own
+ * limit and 503 when the server is overloaded, both with a {@code Retry-After} header and an {@link ApiError} body.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+    private final long retryAfterSeconds;
+
+    public AdmissionControlFilter(AdmissionControl admissionControl, ObjectMapper objectMapper,
+                                  long retryAfterSeconds) {
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        AdmissionEndpoint endpoint = AdmissionEndpoint.resolve(request.getMethod(), path);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdmissionControl.Permit permit = admissionControl.tryAcquire(endpoint);
+        if (!permit.isAdmitted()) {
+            reject(response, permit.getRejection());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new PermitReleasingListener(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdmissionControl.Rejection rejection) throws IOException {
+        ApiError apiError;
+        if (rejection == AdmissionControl.Rejection.ENDPOINT_LIMIT) {
+            apiError = new ApiError(HttpStatus.TOO_MANY_REQUESTS);
+            apiError.setMessage("Too many concurrent requests to this endpoint");
+        } else {
+            apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE);
+            apiError.setMessage("Server is overloaded");
+        }
+        response.setStatus(apiError.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), apiError);
+    }
+
+    private static class PermitReleasingListener implements AsyncListener {
+
+        private final AdmissionControl.Permit permit;
+
+        PermitReleasingListener(AdmissionControl.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package clearsolutions.testassignment.admission;
+
+import java.time.Duration;
+
+/**
+ * Groups of {@code /api/user} requests that get their own concurrency limit.
+ */
+public enum AdmissionEndpoint {
+
+    GET_USER("get-user", Priority.CRITICAL, Duration.ofMillis(50)),
+    GET_USERS("get-users", Priority.NORMAL, Duration.ofMillis(100)),
+    WRITE("write", Priority.NORMAL, Duration.ofMillis(100)),
+    OTHER("other", Priority.NORMAL, Duration.ofMillis(200)),
+    SEARCH("search", Priority.SHEDDABLE, Duration.ofSeconds(1)),
+    ALL("all", Priority.SHEDDABLE, Duration.ofSeconds(2)),
+    BULK("bulk", Priority.SHEDDABLE, Duration.ofSeconds(30));
+
+    private static final String BASE_PATH = "/api/user";
+
+    private final String key;
+    private final Priority priority;
+    private final Duration defaultTargetLatency;
+
+    AdmissionEndpoint(String key, Priority priority, Duration defaultTargetLatency) {
+        this.key = key;
+        this.priority = priority;
+        this.defaultTargetLatency = defaultTargetLatency;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public Duration getDefaultTargetLatency() {
+        return defaultTargetLatency;
+    }
+
+    /**
+     * @return the endpoint group of the request, or {@code null} if it is not a user API request
+     */
+    public static AdmissionEndpoint resolve(String method, String path) {
+        if (!path.startsWith(BASE_PATH)) {
+            return null;
+        }
+        String rest = path.substring(BASE_PATH.length());
+        if (!rest.isEmpty() && rest.charAt(0) != '/') {
+            return null;
+        }
+        if (rest.startsWith("/export") || rest.startsWith("/import")) {
+            return "GET".equals(method) && rest.startsWith("/import/") ? OTHER : BULK;
+        }
+        if (rest.startsWith("/report/")) {
+            return rest.endsWith("/result") ? BULK : OTHER;
+        }
+        if (rest.equals("/batch")) {
+            return GET_USERS;
+        }
+        if (!"GET".equals(method)) {
+            return WRITE;
+        }
+        if (rest.equals("/all")) {
+            return ALL;
+        }
+        if (rest.equals("/searchByBirthDate") || rest.equals("/filter")) {
+            return SEARCH;
+        }
+        if (rest.length() > 1 && rest.indexOf('/', 1) < 0) {
+            return GET_USER;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,22 @@
+package clearsolutions.testassignment.admission;
+
+/**
+ * Share of the global concurrency limit a request class may occupy. Lower shares are shed first as the server
+ * approaches its limit.
+ */
+public enum Priority {
+
+    CRITICAL(1.0),
+    NORMAL(0.9),
+    SHEDDABLE(0.6);
+
+    private final double share;
+
+    Priority(double share) {
+        this.share = share;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
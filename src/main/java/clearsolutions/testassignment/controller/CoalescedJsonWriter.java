@@ -0,0 +1,79 @@
+package clearsolutions.testassignment.controller;
+
+import clearsolutions.testassignment.util.Deadline;
+import clearsolutions.testassignment.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Serializes list responses to JSON once per set of identical concurrent requests. Callers that arrive while a
+ * response with the same key is being built get the same byte array, so a burst of dashboard refreshes costs one
+ * scan and one serialization.
+ */
+@Component
+public class CoalescedJsonWriter implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+    private final SingleFlight<Object, byte[]> responses = new SingleFlight<>();
+
+    public CoalescedJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether the client's most preferred media type is satisfied by JSON, so a JSON body can be sent without
+     * going through content negotiation.
+     */
+    public boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MediaType preferred = null;
+        for (MediaType mediaType : mediaTypes) {
+            if (preferred == null || mediaType.getQualityValue() > preferred.getQualityValue()) {
+                preferred = mediaType;
+            }
+        }
+        return preferred == null || preferred.isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * @param key  identifies the response; requests with equal keys must expect the same body
+     * @param body computes the value to serialize, called by one of the coalesced callers only
+     */
+    public byte[] write(Object key, Supplier<?> body) {
+        return responses.execute(key, () -> {
+            Object value = body.get();
+            Deadline.current().check();
+            try {
+                return objectMapper.writeValueAsBytes(value);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.requests.coalesced", responses, SingleFlight::getCoalesced)
+                .tag("layer", "response")
+                .description("Requests that shared the serialized response of an identical request in flight")
+                .register(registry);
+    }
+}
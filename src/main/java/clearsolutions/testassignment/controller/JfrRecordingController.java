@@ -0,0 +1,74 @@
+package clearsolutions.testassignment.controller;
+
+import clearsolutions.testassignment.exception.JfrRecordingNotFoundException;
+import clearsolutions.testassignment.exception.JfrRecordingNotRunningException;
+import clearsolutions.testassignment.exception.JfrRecordingRunningException;
+import clearsolutions.testassignment.exception.UnknownJfrSettingsException;
+import clearsolutions.testassignment.service.diagnostics.JfrRecordingFile;
+import clearsolutions.testassignment.service.diagnostics.JfrRecordingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/diagnostics/jfr")
+@ConditionalOnProperty(name = "diagnostics.jfr.enabled", havingValue = "true")
+public class JfrRecordingController {
+
+    private final JfrRecordingService recordingService;
+
+    public JfrRecordingController(JfrRecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Boolean>> getStatus() {
+        return ResponseEntity.ok(Map.of("recording", recordingService.isRecording()));
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Boolean>> startRecording(
+            @RequestParam(defaultValue = "default") String settings) throws IOException {
+        boolean started;
+        try {
+            started = recordingService.start(settings);
+        } catch (IllegalArgumentException e) {
+            throw UnknownJfrSettingsException.INSTANCE;
+        }
+        if (!started) {
+            throw JfrRecordingRunningException.INSTANCE;
+        }
+        return ResponseEntity.ok(Map.of("recording", true));
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<JfrRecordingFile> stopRecording() throws IOException {
+        JfrRecordingFile recording = recordingService.stop();
+        if (recording == null) {
+            throw JfrRecordingNotRunningException.INSTANCE;
+        }
+        return ResponseEntity.created(URI.create("/api/diagnostics/jfr/" + recording.getName())).body(recording);
+    }
+
+    @GetMapping("/{fileName}")
+    public ResponseEntity<FileSystemResource> downloadRecording(@PathVariable String fileName) {
+        Path file = recordingService.findRecording(fileName);
+        if (file == null) {
+            throw JfrRecordingNotFoundException.INSTANCE;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
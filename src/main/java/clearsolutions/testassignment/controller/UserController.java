@@ -1,42 +1,65 @@
 package clearsolutions.testassignment.controller;
 
+import clearsolutions.testassignment.exception.BadTimeRangeException;
+import clearsolutions.testassignment.exception.BatchTooLargeException;
+import clearsolutions.testassignment.exception.UserAgeRestrictionException;
+import clearsolutions.testassignment.exception.UserNotFoundException;
+import clearsolutions.testassignment.model.CreatedUser;
+import clearsolutions.testassignment.model.ProjectedUser;
+import clearsolutions.testassignment.model.ProjectedUsers;
 import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.UserAgePolicy;
 import clearsolutions.testassignment.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.Date;
-import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/user")
 public class UserController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final UserService userService;
+    private final CoalescedJsonWriter jsonWriter;
 
     @Value("${user.min.age}")
     private int userAgeRestriction;
 
-    public UserController(UserService userService) {
+    @Value("${user.batch.max-ids}")
+    private int maxBatchIds;
+
+    public UserController(UserService userService, CoalescedJsonWriter jsonWriter) {
         this.userService = userService;
+        this.jsonWriter = jsonWriter;
     }
 
+    /**
+     * Responds with the stored user and its id, which a client retrying with the same idempotency key gets back
+     * unchanged.
+     */
     @PostMapping
-    public ResponseEntity<?> createUser(@Valid @RequestBody User user) {
-
-        Date today = new Date();
-        long ageInMillis = today.getTime() - user.getBirthDate().getTime();
-        long ageInYears = ageInMillis / (1000L * 60 * 60 * 24 * 365);
-        if (ageInYears < userAgeRestriction) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("User age is lower then " + userAgeRestriction);
+    public ResponseEntity<CreatedUser> createUser(@Valid @RequestBody User user,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                           String idempotencyKey) {
+
+        if (!UserAgePolicy.isOldEnough(user.getBirthDate(), userAgeRestriction)) {
+            throw new UserAgeRestrictionException(userAgeRestriction);
         }
-        User createdUser = userService.createUser(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+        int id = userService.createUser(user, idempotencyKey);
+        return ResponseEntity.created(URI.create("/api/user/" + id)).body(new CreatedUser(id, user));
     }
 
 
@@ -46,7 +69,7 @@ public class UserController {
         if (updatedUser != null) {
             return ResponseEntity.ok(updatedUser);
         } else {
-            return ResponseEntity.notFound().build();
+            throw UserNotFoundException.INSTANCE;
         }
     }
 
@@ -56,7 +79,7 @@ public class UserController {
         if (updatedUser != null) {
             return ResponseEntity.ok(updatedUser);
         } else {
-            return ResponseEntity.notFound().build();
+            throw UserNotFoundException.INSTANCE;
         }
     }
 
@@ -66,31 +89,126 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * @param fields optional comma separated list of the user properties to return
+     */
     @GetMapping("/searchByBirthDate")
     public ResponseEntity<?> searchUsersByBirthDateRange(
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date from,
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date to) {
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date to,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         if (from.after(to)) {
-            return ResponseEntity.badRequest().body("Bad time range");
+            throw BadTimeRangeException.INSTANCE;
         }
 
-        List<User> users = userService.searchUsersByBirthDateRange(from, to);
-        return ResponseEntity.ok(users);
+        UserFieldSet fieldSet = fields == null ? null : UserFieldSet.parse(fields);
+        return listResponse(new ListKey("searchByBirthDate", from.getTime(), to.getTime(), fieldSet), accept,
+                () -> fieldSet == null
+                        ? userService.searchUsersByBirthDateRange(from, to)
+                        : new ProjectedUsers(userService.searchUsersByBirthDateRange(from, to, fieldSet), fieldSet));
     }
 
+    /**
+     * @param fields optional comma separated list of the user properties to return
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> all = userService.getAllUsers();
-        return ResponseEntity.ok(all);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                         String accept) {
+        UserFieldSet fieldSet = fields == null ? null : UserFieldSet.parse(fields);
+        return listResponse(new ListKey("all", 0, 0, fieldSet), accept,
+                () -> fieldSet == null
+                        ? userService.getAllUsers()
+                        : new ProjectedUsers(userService.getAllUsers(fieldSet), fieldSet));
+    }
+
+    /**
+     * Ad-hoc filter evaluated on the column shadow of the store. All conditions are optional and must all hold.
+     *
+     * @param bornFrom    first birth date to include
+     * @param bornTo      last birth date to include
+     * @param emailDomain the part of the email after {@code @}, ignoring case
+     * @param with        comma separated properties that must be set
+     * @param without     comma separated properties that must not be set
+     * @param fields      optional comma separated list of the user properties to return
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterUsers(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate bornFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate bornTo,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) String with,
+            @RequestParam(required = false) String without,
+            @RequestParam(required = false) String fields) {
+        if (bornFrom != null && bornTo != null && bornFrom.isAfter(bornTo)) {
+            throw BadTimeRangeException.INSTANCE;
+        }
+
+        UserFilter filter = new UserFilter(bornFrom, bornTo, emailDomain,
+                with == null ? null : UserFieldSet.parse(with),
+                without == null ? null : UserFieldSet.parse(without));
+        UserFieldSet fieldSet = fields == null ? null : UserFieldSet.parse(fields);
+        return ResponseEntity.ok(fieldSet == null
+                ? userService.filterUsers(filter, UserFieldSet.ALL)
+                : new ProjectedUsers(userService.filterUsers(filter, fieldSet), fieldSet));
+    }
+
+    /**
+     * Fetches several users by id in one call. Ids that do not exist are listed in {@code missingIds} rather than
+     * failing the request.
+     *
+     * @param ids    comma separated user ids
+     * @param fields optional comma separated list of the user properties to return
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<UserBatch> getUsersByIds(@RequestParam int[] ids,
+                                                   @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(batch(ids, fields));
+    }
+
+    /**
+     * Same as {@link #getUsersByIds(int[], String)} with the ids sent as a JSON array, for id lists too long for
+     * a URL.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<UserBatch> postUsersByIds(@RequestBody int[] ids,
+                                                    @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(batch(ids, fields));
     }
 
+    /**
+     * @param fields optional comma separated list of the user properties to return
+     */
     @GetMapping("/{userId}")
-    public ResponseEntity<?> getUserById(@PathVariable Integer userId) {
+    public ResponseEntity<?> getUserById(@PathVariable Integer userId,
+                                         @RequestParam(required = false) String fields) {
+        UserFieldSet fieldSet = fields == null ? null : UserFieldSet.parse(fields);
         User user = userService.getUserById(userId);
-        if (user != null) {
-            return ResponseEntity.ok(user);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found with id: " + userId);
+        if (user == null) {
+            throw UserNotFoundException.INSTANCE;
+        }
+        return ResponseEntity.ok(fieldSet == null ? user : new ProjectedUser(user, fieldSet));
+    }
+
+    private UserBatch batch(int[] ids, String fields) {
+        if (ids.length > maxBatchIds) {
+            throw new BatchTooLargeException(maxBatchIds);
         }
+        return userService.getUsersByIds(ids, fields == null ? UserFieldSet.ALL : UserFieldSet.parse(fields));
+    }
+
+    /**
+     * JSON responses are built once for identical concurrent requests, other formats go through regular content
+     * negotiation.
+     */
+    private ResponseEntity<?> listResponse(ListKey key, String accept, Supplier<?> body) {
+        if (jsonWriter.prefersJson(accept)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(jsonWriter.write(key, body));
+        }
+        return ResponseEntity.ok(body.get());
+    }
+
+    private record ListKey(String endpoint, long from, long to, UserFieldSet fields) {
     }
 }
@@ -0,0 +1,118 @@
+package clearsolutions.testassignment.controller;
+
+import clearsolutions.testassignment.exception.ExportNotFoundException;
+import clearsolutions.testassignment.service.export.ExportFile;
+import clearsolutions.testassignment.service.export.ExportFormat;
+import clearsolutions.testassignment.service.export.UserExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/user/export")
+public class UserExportController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final UserExportService exportService;
+
+    public UserExportController(UserExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExportFile> exportUsers(@RequestParam(defaultValue = "BINARY") ExportFormat format) {
+        ExportFile export = exportService.export(format);
+        return ResponseEntity.created(URI.create("/api/user/export/" + export.getName())).body(export);
+    }
+
+    /**
+     * Serves an export file, honouring a single-range {@code Range} header so interrupted downloads can resume.
+     * Export files are immutable once published, so a byte range always refers to the same content.
+     * The body is handed to Tomcat sendfile when the connector supports it and copied with
+     * {@link FileChannel#transferTo} otherwise.
+     */
+    @GetMapping("/{fileName}")
+    public ResponseEntity<StreamingResponseBody> downloadExport(
+            @PathVariable String fileName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            HttpServletRequest request) throws IOException {
+        Path file = exportService.findExport(fileName);
+        if (file == null) {
+            throw ExportNotFoundException.INSTANCE;
+        }
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    status = HttpStatus.PARTIAL_CONTENT;
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+            }
+        }
+
+        long count = end - start + 1;
+        headers.setContentType(MediaType.parseMediaType(ExportFormat.fromFileName(fileName).getContentType()));
+        headers.setContentLength(count);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName).build());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+
+        long position = start;
+        StreamingResponseBody body = out -> transfer(file, position, count, out);
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+
+    private static void transfer(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package clearsolutions.testassignment.controller;
+
+import clearsolutions.testassignment.exception.ImportJobNotFoundException;
+import clearsolutions.testassignment.service.importer.ImportFormat;
+import clearsolutions.testassignment.service.importer.ImportJob;
+import clearsolutions.testassignment.service.importer.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/user/import")
+public class UserImportController {
+
+    private final UserImportService importService;
+
+    public UserImportController(UserImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(consumes = "text/csv")
+    public ResponseEntity<ImportJob> importCsv(HttpServletRequest request) throws IOException {
+        return startImport(request, ImportFormat.CSV);
+    }
+
+    @PostMapping(consumes = "application/x-ndjson")
+    public ResponseEntity<ImportJob> importNdjson(HttpServletRequest request) throws IOException {
+        return startImport(request, ImportFormat.NDJSON);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        ImportJob job = importService.getJob(jobId);
+        if (job != null) {
+            return ResponseEntity.ok(job);
+        } else {
+            throw ImportJobNotFoundException.INSTANCE;
+        }
+    }
+
+    private ResponseEntity<ImportJob> startImport(HttpServletRequest request, ImportFormat format) throws IOException {
+        ImportJob job = importService.startImport(request.getInputStream(), format);
+        return ResponseEntity.accepted().location(URI.create("/api/user/import/" + job.getId())).body(job);
+    }
+}
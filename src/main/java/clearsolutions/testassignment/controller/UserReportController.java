@@ -0,0 +1,130 @@
+package clearsolutions.testassignment.controller;
+
+import clearsolutions.testassignment.admission.Priority;
+import clearsolutions.testassignment.exception.BadTimeRangeException;
+import clearsolutions.testassignment.exception.ReportJobNotFoundException;
+import clearsolutions.testassignment.exception.ReportNotReadyException;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.report.ReportJob;
+import clearsolutions.testassignment.service.report.ReportQuery;
+import clearsolutions.testassignment.service.report.UserReportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Background versions of the list endpoints of {@link UserController}. A submitted report is polled at
+ * {@code /api/user/report/{jobId}} and, once completed, downloaded from {@code /api/user/report/{jobId}/result}
+ * as the JSON array the synchronous endpoint would have returned.
+ */
+@RestController
+@RequestMapping("/api/user/report")
+public class UserReportController {
+
+    private final UserReportService reportService;
+
+    public UserReportController(UserReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    /**
+     * @param fields optional comma separated list of the user properties to return
+     */
+    @PostMapping("/all")
+    public ResponseEntity<ReportJob> reportAllUsers(@RequestParam(required = false) String fields,
+                                                    @RequestParam(defaultValue = "NORMAL") Priority priority) {
+        return submit(ReportQuery.all(parseFields(fields)), priority);
+    }
+
+    /**
+     * @param fields optional comma separated list of the user properties to return
+     */
+    @PostMapping("/searchByBirthDate")
+    public ResponseEntity<ReportJob> reportUsersByBirthDateRange(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") Date to,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "NORMAL") Priority priority) {
+        if (from.after(to)) {
+            throw BadTimeRangeException.INSTANCE;
+        }
+        return submit(ReportQuery.searchByBirthDate(from, to, parseFields(fields)), priority);
+    }
+
+    /**
+     * Same conditions as {@link UserController#filterUsers}.
+     */
+    @PostMapping("/filter")
+    public ResponseEntity<ReportJob> reportFilteredUsers(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate bornFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate bornTo,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) String with,
+            @RequestParam(required = false) String without,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "NORMAL") Priority priority) {
+        if (bornFrom != null && bornTo != null && bornFrom.isAfter(bornTo)) {
+            throw BadTimeRangeException.INSTANCE;
+        }
+
+        UserFilter filter = new UserFilter(bornFrom, bornTo, emailDomain, parseFields(with), parseFields(without));
+        return submit(ReportQuery.filter(filter, parseFields(fields)), priority);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJob> getReportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(findJob(jobId));
+    }
+
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<FileSystemResource> downloadReport(@PathVariable String jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            throw ReportNotReadyException.INSTANCE;
+        }
+        Path file = reportService.findResult(job);
+        if (file == null) {
+            throw ReportJobNotFoundException.INSTANCE;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> deleteReport(@PathVariable String jobId) {
+        if (!reportService.delete(jobId)) {
+            throw ReportJobNotFoundException.INSTANCE;
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job = reportService.getJob(jobId);
+        if (job == null) {
+            throw ReportJobNotFoundException.INSTANCE;
+        }
+        return job;
+    }
+
+    private ResponseEntity<ReportJob> submit(ReportQuery query, Priority priority) {
+        ReportJob job = reportService.submit(query, priority);
+        return ResponseEntity.accepted().location(URI.create("/api/user/report/" + job.getId())).body(job);
+    }
+
+    private static UserFieldSet parseFields(String fields) {
+        return fields == null ? null : UserFieldSet.parse(fields);
+    }
+}
@@ -1,5 +1,6 @@
 package clearsolutions.testassignment.controller.advice;
 
+import clearsolutions.testassignment.exception.ApiException;
 import clearsolutions.testassignment.exception.error.ApiError;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -9,13 +10,21 @@ import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @ControllerAdvice
 public class RestControllerAdvice extends ResponseEntityExceptionHandler {
 
+    private static final int MAX_STATIC_RESPONSES = 64;
+
+    private final Map<String, StaticErrorResponse> staticResponses = new ConcurrentHashMap<>();
+
     private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
@@ -36,9 +45,20 @@ public class RestControllerAdvice extends ResponseEntityExceptionHandler {
 
         ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST);
         apiError.setMessage("Validation error");
-        apiError.addValidationErrors(ex.getBindingResult().getFieldErrors());
-        apiError.addValidationError(ex.getBindingResult().getGlobalErrors());
+        apiError.addAllValidationErrors(ex.getBindingResult().getAllErrors());
 
         return buildResponseEntity(apiError);
     }
+
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<Object> handleApiException(ApiException ex) {
+        StaticErrorResponse response = staticResponses.get(ex.getMessage());
+        if (response == null || response.getStatus() != ex.getStatus()) {
+            response = new StaticErrorResponse(ex.getStatus(), ex.getMessage());
+            if (staticResponses.size() < MAX_STATIC_RESPONSES) {
+                staticResponses.putIfAbsent(ex.getMessage(), response);
+            }
+        }
+        return response.get();
+    }
 }
@@ -0,0 +1,44 @@
+package clearsolutions.testassignment.controller.advice;
+
+import clearsolutions.testassignment.exception.error.ApiError;
+import clearsolutions.testassignment.util.CachedClock;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Error response whose body only changes with the clock. One immutable response is built per {@link CachedClock}
+ * tick and shared by every request failing the same way within that second.
+ */
+final class StaticErrorResponse {
+
+    private final HttpStatus status;
+    private final String message;
+    private volatile Snapshot snapshot;
+
+    StaticErrorResponse(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    HttpStatus getStatus() {
+        return status;
+    }
+
+    ResponseEntity<Object> get() {
+        LocalDateTime now = CachedClock.now();
+        Snapshot current = snapshot;
+        if (current == null || current.timestamp != now) {
+            ApiError apiError = new ApiError(status);
+            apiError.setMessage(message);
+            apiError.setTimestamp(now);
+            current = new Snapshot(now, new ResponseEntity<>(apiError, status));
+            snapshot = current;
+        }
+        return current.response;
+    }
+
+    private record Snapshot(LocalDateTime timestamp, ResponseEntity<Object> response) {
+    }
+}
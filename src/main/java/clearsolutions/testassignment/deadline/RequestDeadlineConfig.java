@@ -0,0 +1,36 @@
+package clearsolutions.testassignment.deadline;
+
+import clearsolutions.testassignment.admission.AdmissionEndpoint;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class RequestDeadlineConfig {
+
+    /**
+     * Reads {@code user.deadline.<endpoint>} for each endpoint group, endpoints without the property have no
+     * server-side deadline.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter(Environment environment) {
+        Map<AdmissionEndpoint, Duration> timeouts = new EnumMap<>(AdmissionEndpoint.class);
+        for (AdmissionEndpoint endpoint : AdmissionEndpoint.values()) {
+            Duration timeout = environment.getProperty("user.deadline." + endpoint.getKey(), Duration.class);
+            if (timeout != null) {
+                timeouts.put(endpoint, timeout);
+            }
+        }
+        FilterRegistrationBean<RequestDeadlineFilter> registration = new FilterRegistrationBean<>(
+                new RequestDeadlineFilter(timeouts));
+        registration.addUrlPatterns("/api/user", "/api/user/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
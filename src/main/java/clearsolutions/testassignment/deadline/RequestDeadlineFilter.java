@@ -0,0 +1,67 @@
+package clearsolutions.testassignment.deadline;
+
+import clearsolutions.testassignment.admission.AdmissionEndpoint;
+import clearsolutions.testassignment.util.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Attaches a {@link Deadline} to user API requests for the duration of the handler. The deadline is the
+ * endpoint's configured timeout, shortened by the client's {@value #TIMEOUT_HEADER} header (in milliseconds) if it
+ * asks for less. Requests to endpoints without a configured timeout only get a deadline from the header, capped at
+ * {@link #MAX_REQUESTED_TIMEOUT}.
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    static final Duration MAX_REQUESTED_TIMEOUT = Duration.ofHours(1);
+
+    private final Map<AdmissionEndpoint, Duration> timeouts;
+
+    public RequestDeadlineFilter(Map<AdmissionEndpoint, Duration> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        AdmissionEndpoint endpoint = AdmissionEndpoint.resolve(request.getMethod(), path);
+        Duration timeout = shorter(endpoint == null ? null : timeouts.get(endpoint),
+                requestedTimeout(request.getHeader(TIMEOUT_HEADER)));
+        if (timeout == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (Deadline.Scope ignored = Deadline.after(timeout).attach()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static Duration requestedTimeout(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            long millis = Long.parseLong(header.strip());
+            return millis > 0 ? Duration.ofMillis(Math.min(millis, MAX_REQUESTED_TIMEOUT.toMillis())) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Duration shorter(Duration configured, Duration requested) {
+        if (configured == null || requested == null) {
+            return configured == null ? requested : configured;
+        }
+        return requested.compareTo(configured) < 0 ? requested : configured;
+    }
+}
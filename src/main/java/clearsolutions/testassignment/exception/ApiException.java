@@ -0,0 +1,22 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Expected failure of a user API request, mapped to an error response by the controller advice. These are part of
+ * normal traffic, so they carry no stack trace and their message must not vary between occurrences of the same
+ * failure, which lets the advice reuse one response per failure.
+ */
+public abstract class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    protected ApiException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class BadTimeRangeException extends ApiException {
+
+    public static final BadTimeRangeException INSTANCE = new BadTimeRangeException();
+
+    private BadTimeRangeException() {
+        super(HttpStatus.BAD_REQUEST, "Bad time range");
+    }
+}
@@ -0,0 +1,10 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class BatchTooLargeException extends ApiException {
+
+    public BatchTooLargeException(int maxIds) {
+        super(HttpStatus.BAD_REQUEST, "At most " + maxIds + " users can be fetched at once");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class DeadlineExceededException extends ApiException {
+
+    public static final DeadlineExceededException INSTANCE = new DeadlineExceededException();
+
+    private DeadlineExceededException() {
+        super(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ExportNotFoundException extends ApiException {
+
+    public static final ExportNotFoundException INSTANCE = new ExportNotFoundException();
+
+    private ExportNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "Export not found");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class IdempotencyKeyReusedException extends ApiException {
+
+    public static final IdempotencyKeyReusedException INSTANCE = new IdempotencyKeyReusedException();
+
+    private IdempotencyKeyReusedException() {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key was already used for a different request");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ImportJobNotFoundException extends ApiException {
+
+    public static final ImportJobNotFoundException INSTANCE = new ImportJobNotFoundException();
+
+    private ImportJobNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "Import job not found");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class JfrRecordingNotFoundException extends ApiException {
+
+    public static final JfrRecordingNotFoundException INSTANCE = new JfrRecordingNotFoundException();
+
+    private JfrRecordingNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "Recording not found");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class JfrRecordingNotRunningException extends ApiException {
+
+    public static final JfrRecordingNotRunningException INSTANCE = new JfrRecordingNotRunningException();
+
+    private JfrRecordingNotRunningException() {
+        super(HttpStatus.CONFLICT, "No recording is running");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class JfrRecordingRunningException extends ApiException {
+
+    public static final JfrRecordingRunningException INSTANCE = new JfrRecordingRunningException();
+
+    private JfrRecordingRunningException() {
+        super(HttpStatus.CONFLICT, "A recording is already running");
+    }
+}
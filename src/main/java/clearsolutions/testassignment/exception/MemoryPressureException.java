@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class MemoryPressureException extends ApiException {
+
+    public static final MemoryPressureException INSTANCE = new MemoryPressureException();
+
+    private MemoryPressureException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Server is low on memory, try again later");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ReportJobNotFoundException extends ApiException {
+
+    public static final ReportJobNotFoundException INSTANCE = new ReportJobNotFoundException();
+
+    private ReportJobNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "Report job not found");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ReportNotReadyException extends ApiException {
+
+    public static final ReportNotReadyException INSTANCE = new ReportNotReadyException();
+
+    private ReportNotReadyException() {
+        super(HttpStatus.CONFLICT, "Report job has not completed");
+    }
+}
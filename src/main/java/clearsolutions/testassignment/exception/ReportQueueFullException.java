@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ReportQueueFullException extends ApiException {
+
+    public static final ReportQueueFullException INSTANCE = new ReportQueueFullException();
+
+    private ReportQueueFullException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many reports are queued, try again later");
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnknownFieldException extends ApiException {
+
+    public static final UnknownFieldException INSTANCE = new UnknownFieldException();
+
+    private UnknownFieldException() {
+        super(HttpStatus.BAD_REQUEST, "Unknown field requested");
+    }
+}
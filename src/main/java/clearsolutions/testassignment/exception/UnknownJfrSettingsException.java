@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnknownJfrSettingsException extends ApiException {
+
+    public static final UnknownJfrSettingsException INSTANCE = new UnknownJfrSettingsException();
+
+    private UnknownJfrSettingsException() {
+        super(HttpStatus.BAD_REQUEST, "Unknown JFR settings");
+    }
+}
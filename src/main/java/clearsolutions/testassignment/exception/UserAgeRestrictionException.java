@@ -0,0 +1,11 @@
+package clearsolutions.testassignment.exception;
+
+import clearsolutions.testassignment.service.UserAgePolicy;
+import org.springframework.http.HttpStatus;
+
+public class UserAgeRestrictionException extends ApiException {
+
+    public UserAgeRestrictionException(int minAge) {
+        super(HttpStatus.BAD_REQUEST, UserAgePolicy.rejectionMessage(minAge));
+    }
+}
@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UserNotFoundException extends ApiException {
+
+    public static final UserNotFoundException INSTANCE = new UserNotFoundException();
+
+    private UserNotFoundException() {
+        super(HttpStatus.NOT_FOUND, "User not found");
+    }
+}
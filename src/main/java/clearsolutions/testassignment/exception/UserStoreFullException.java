@@ -0,0 +1,12 @@
+package clearsolutions.testassignment.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UserStoreFullException extends ApiException {
+
+    public static final UserStoreFullException INSTANCE = new UserStoreFullException();
+
+    private UserStoreFullException() {
+        super(HttpStatus.INSUFFICIENT_STORAGE, "User store is full");
+    }
+}
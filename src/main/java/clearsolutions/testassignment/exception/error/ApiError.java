@@ -1,5 +1,6 @@
 package clearsolutions.testassignment.exception.error;
 
+import clearsolutions.testassignment.util.CachedClock;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.ConstraintViolation;
 import org.hibernate.validator.internal.engine.path.PathImpl;
@@ -23,7 +24,7 @@ public class ApiError {
     private List<ApiSubError> subErrors;
 
     private ApiError() {
-        timestamp = LocalDateTime.now();
+        timestamp = CachedClock.now();
     }
 
     public ApiError(HttpStatus status) {
@@ -135,6 +136,26 @@ public class ApiError {
         globalErrors.forEach(this::addValidationError);
     }
 
+    /**
+     * Adds field errors followed by global errors from a binding result's {@code getAllErrors()}, without the
+     * filtered copies {@code getFieldErrors()} and {@code getGlobalErrors()} would make. The errors are walked once;
+     * field errors are added as they are met and global errors are held back until the end.
+     */
+    public void addAllValidationErrors(List<ObjectError> allErrors) {
+        if (subErrors == null) {
+            subErrors = new ArrayList<>(allErrors.size());
+        }
+        List<ObjectError> globalErrors = new ArrayList<>();
+        for (ObjectError error : allErrors) {
+            if (error instanceof FieldError fieldError) {
+                addValidationError(fieldError);
+            } else {
+                globalErrors.add(error);
+            }
+        }
+        addValidationError(globalErrors);
+    }
+
     /**
      * Utility method for adding error of ConstraintViolation. Usually when a @Validated validation fails.
      *
@@ -0,0 +1,110 @@
+package clearsolutions.testassignment.json;
+
+import clearsolutions.testassignment.exception.error.ApiError;
+import clearsolutions.testassignment.exception.error.ApiValidationError;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reflection-free serialization of {@link ApiError} and {@link ApiValidationError}, matching Jackson's bean
+ * serializer output including the {@code dd-MM-yyyy hh:mm:ss} timestamp format declared on the model.
+ */
+@JsonComponent
+public class ApiErrorJsonComponent {
+
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DEBUG_MESSAGE = new SerializedString("debugMessage");
+    private static final SerializedString SUB_ERRORS = new SerializedString("subErrors");
+    private static final SerializedString OBJECT = new SerializedString("object");
+    private static final SerializedString FIELD = new SerializedString("field");
+    private static final SerializedString REJECTED_VALUE = new SerializedString("rejectedValue");
+
+    public static class Serializer extends StdSerializer<ApiError> {
+
+        public Serializer() {
+            super(ApiError.class);
+        }
+
+        @Override
+        public void serialize(ApiError error, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            JsonInclude.Include inclusion = JsonValues.inclusion(provider, ApiError.class);
+            gen.writeStartObject(error);
+            if (JsonValues.isIncluded(error.getStatus(), inclusion)) {
+                gen.writeFieldName(STATUS);
+                if (error.getStatus() == null) {
+                    gen.writeNull();
+                } else if (provider.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                        || provider.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)) {
+                    provider.defaultSerializeValue(error.getStatus(), gen);
+                } else {
+                    gen.writeString(error.getStatus().name());
+                }
+            }
+            if (JsonValues.isIncluded(error.getTimestamp(), inclusion)) {
+                gen.writeFieldName(TIMESTAMP);
+                if (error.getTimestamp() == null) {
+                    gen.writeNull();
+                } else {
+                    JsonValues.writeTimestamp(error.getTimestamp(), gen);
+                }
+            }
+            JsonValues.writeString(gen, MESSAGE, error.getMessage(), inclusion);
+            JsonValues.writeString(gen, DEBUG_MESSAGE, error.getDebugMessage(), inclusion);
+            List<?> subErrors = error.getSubErrors();
+            if (JsonValues.isIncluded(subErrors, inclusion)) {
+                gen.writeFieldName(SUB_ERRORS);
+                if (subErrors == null) {
+                    gen.writeNull();
+                } else {
+                    gen.writeStartArray(subErrors, subErrors.size());
+                    for (Object subError : subErrors) {
+                        if (subError instanceof ApiValidationError validationError) {
+                            writeValidationError(validationError, gen, provider);
+                        } else {
+                            provider.defaultSerializeValue(subError, gen);
+                        }
+                    }
+                    gen.writeEndArray();
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class ValidationErrorSerializer extends StdSerializer<ApiValidationError> {
+
+        public ValidationErrorSerializer() {
+            super(ApiValidationError.class);
+        }
+
+        @Override
+        public void serialize(ApiValidationError error, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            writeValidationError(error, gen, provider);
+        }
+    }
+
+    private static void writeValidationError(ApiValidationError error, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        JsonInclude.Include inclusion = JsonValues.inclusion(provider, ApiValidationError.class);
+        gen.writeStartObject(error);
+        JsonValues.writeString(gen, OBJECT, error.getObject(), inclusion);
+        JsonValues.writeString(gen, FIELD, error.getField(), inclusion);
+        if (JsonValues.isIncluded(error.getRejectedValue(), inclusion)) {
+            gen.writeFieldName(REJECTED_VALUE);
+            provider.defaultSerializeValue(error.getRejectedValue(), gen);
+        }
+        JsonValues.writeString(gen, MESSAGE, error.getMessage(), inclusion);
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,178 @@
+package clearsolutions.testassignment.json;
+
+import clearsolutions.testassignment.util.EpochDays;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Value codecs shared by the hand-written serializers. They reproduce what Jackson's bean serializers and the
+ * {@code @JsonFormat} patterns on the model would write, without reflection or per-call formatter allocation.
+ */
+final class JsonValues {
+
+    static final String BIRTH_DATE_PATTERN = "yyyy-MM-dd";
+    static final String TIMESTAMP_PATTERN = "dd-MM-yyyy hh:mm:ss";
+
+    private static final int TIMESTAMP_LENGTH = TIMESTAMP_PATTERN.length();
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern(TIMESTAMP_PATTERN);
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[TIMESTAMP_LENGTH]);
+
+    private static volatile FormattedTimestamp lastTimestamp = new FormattedTimestamp(null, null);
+
+    private JsonValues() {
+    }
+
+    static JsonInclude.Include inclusion(SerializerProvider provider, Class<?> type) {
+        return provider.getConfig().getDefaultPropertyInclusion(type).getValueInclusion();
+    }
+
+    /**
+     * Whether a property holding {@code value} is written under the given default inclusion.
+     */
+    static boolean isIncluded(Object value, JsonInclude.Include inclusion) {
+        if (value == null) {
+            return inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS
+                    || inclusion == JsonInclude.Include.CUSTOM;
+        }
+        if (inclusion == JsonInclude.Include.NON_EMPTY || inclusion == JsonInclude.Include.NON_DEFAULT) {
+            return !(value instanceof String string && string.isEmpty())
+                    && !(value instanceof Collection<?> collection && collection.isEmpty());
+        }
+        return true;
+    }
+
+    static void writeString(JsonGenerator gen, SerializableString name, String value,
+                            JsonInclude.Include inclusion) throws IOException {
+        if (!isIncluded(value, inclusion)) {
+            return;
+        }
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : StringDeserializer.instance.deserialize(p, ctxt);
+    }
+
+    /**
+     * Writes a date as {@code yyyy-MM-dd}. UTC dates in the Gregorian era go through {@link EpochDays}; anything
+     * else falls back to the {@link SimpleDateFormat} Jackson itself would use.
+     */
+    static void writeDate(Date date, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int epochDay = EpochDays.fromDate(date);
+        if (isUtc(provider.getTimeZone())
+                && epochDay >= EpochDays.GREGORIAN_CUTOVER_DAY && epochDay <= EpochDays.LAST_FOUR_DIGIT_YEAR_DAY) {
+            char[] buffer = BUFFER.get();
+            EpochDays.format(epochDay, buffer, 0);
+            gen.writeString(buffer, 0, EpochDays.FORMATTED_LENGTH);
+        } else {
+            gen.writeString(dateFormat(provider.getTimeZone(), provider.getLocale()).format(date));
+        }
+    }
+
+    static Date readDate(JsonParser p, DeserializationContext ctxt) throws IOException {
+        switch (p.currentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+                return new Date(p.getLongValue());
+            case VALUE_STRING:
+                String text = p.getText().trim();
+                if (text.isEmpty()) {
+                    return null;
+                }
+                if (isUtc(ctxt.getTimeZone()) && text.length() == EpochDays.FORMATTED_LENGTH) {
+                    try {
+                        int epochDay = EpochDays.parse(text);
+                        if (epochDay >= EpochDays.GREGORIAN_CUTOVER_DAY) {
+                            return EpochDays.toDate(epochDay);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // not strictly yyyy-MM-dd, let the lenient format decide
+                    }
+                }
+                try {
+                    return dateFormat(ctxt.getTimeZone(), ctxt.getLocale()).parse(text);
+                } catch (ParseException e) {
+                    throw ctxt.weirdStringException(text, Date.class,
+                            "expected format \"" + BIRTH_DATE_PATTERN + "\"");
+                }
+            default:
+                return (Date) ctxt.handleUnexpectedToken(Date.class, p);
+        }
+    }
+
+    /**
+     * Writes a timestamp as {@code dd-MM-yyyy hh:mm:ss}. The last formatted value is kept, so the timestamps
+     * {@link clearsolutions.testassignment.util.CachedClock} hands out are only formatted once per second.
+     */
+    static void writeTimestamp(LocalDateTime timestamp, JsonGenerator gen) throws IOException {
+        FormattedTimestamp last = lastTimestamp;
+        if (last.value != timestamp) {
+            last = new FormattedTimestamp(timestamp, new SerializedString(formatTimestamp(timestamp)));
+            lastTimestamp = last;
+        }
+        gen.writeString(last.text);
+    }
+
+    private static String formatTimestamp(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year < 1 || year > 9999) {
+            return TIMESTAMP_FORMATTER.format(timestamp);
+        }
+        int hour = timestamp.getHour() % 12;
+        char[] buffer = BUFFER.get();
+        twoDigits(buffer, 0, timestamp.getDayOfMonth());
+        buffer[2] = '-';
+        twoDigits(buffer, 3, timestamp.getMonthValue());
+        buffer[5] = '-';
+        twoDigits(buffer, 6, year / 100);
+        twoDigits(buffer, 8, year % 100);
+        buffer[10] = ' ';
+        twoDigits(buffer, 11, hour == 0 ? 12 : hour);
+        buffer[13] = ':';
+        twoDigits(buffer, 14, timestamp.getMinute());
+        buffer[16] = ':';
+        twoDigits(buffer, 17, timestamp.getSecond());
+        return new String(buffer, 0, TIMESTAMP_LENGTH);
+    }
+
+    private static void twoDigits(char[] buffer, int offset, int value) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static boolean isUtc(TimeZone timeZone) {
+        return "UTC".equals(timeZone.getID()) || "GMT".equals(timeZone.getID());
+    }
+
+    private static SimpleDateFormat dateFormat(TimeZone timeZone, Locale locale) {
+        SimpleDateFormat format = new SimpleDateFormat(BIRTH_DATE_PATTERN, locale);
+        format.setTimeZone(timeZone);
+        return format;
+    }
+
+    private record FormattedTimestamp(LocalDateTime value, SerializableString text) {
+    }
+}
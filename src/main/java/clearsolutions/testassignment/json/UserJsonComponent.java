@@ -0,0 +1,239 @@
+package clearsolutions.testassignment.json;
+
+import clearsolutions.testassignment.model.CreatedUser;
+import clearsolutions.testassignment.model.ProjectedUser;
+import clearsolutions.testassignment.model.ProjectedUsers;
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserField;
+import clearsolutions.testassignment.model.UserFieldSet;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflection-free (de)serialization of {@link User}. Produces the same document as Jackson's bean serializer with
+ * the {@code yyyy-MM-dd} birth date format declared on the model. Projections write the selected fields through
+ * a writer chain built once per {@link UserFieldSet}.
+ */
+@JsonComponent
+public class UserJsonComponent {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString BIRTH_DATE = new SerializedString("birthDate");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString PHONE_NUMBER = new SerializedString("phoneNumber");
+    private static final SerializedString USERS = new SerializedString("users");
+    private static final SerializedString MISSING_IDS = new SerializedString("missingIds");
+
+    private static final FieldWriter[][] PROJECTIONS = new FieldWriter[UserFieldSet.count()][];
+
+    static {
+        for (int mask = 0; mask < PROJECTIONS.length; mask++) {
+            PROJECTIONS[mask] = UserFieldSet.ofMask(mask).getFields().stream()
+                    .map(UserJsonComponent::fieldWriter)
+                    .toArray(FieldWriter[]::new);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldWriter {
+        void write(User user, JsonGenerator gen, SerializerProvider provider, JsonInclude.Include inclusion)
+                throws IOException;
+    }
+
+    private static FieldWriter fieldWriter(UserField field) {
+        return switch (field) {
+            case EMAIL -> (user, gen, provider, inclusion) ->
+                    JsonValues.writeString(gen, EMAIL, user.getEmail(), inclusion);
+            case FIRST_NAME -> (user, gen, provider, inclusion) ->
+                    JsonValues.writeString(gen, FIRST_NAME, user.getFirstName(), inclusion);
+            case LAST_NAME -> (user, gen, provider, inclusion) ->
+                    JsonValues.writeString(gen, LAST_NAME, user.getLastName(), inclusion);
+            case BIRTH_DATE -> UserJsonComponent::writeBirthDate;
+            case ADDRESS -> (user, gen, provider, inclusion) ->
+                    JsonValues.writeString(gen, ADDRESS, user.getAddress(), inclusion);
+            case PHONE_NUMBER -> (user, gen, provider, inclusion) ->
+                    JsonValues.writeString(gen, PHONE_NUMBER, user.getPhoneNumber(), inclusion);
+        };
+    }
+
+    private static void writeBirthDate(User user, JsonGenerator gen, SerializerProvider provider,
+                                       JsonInclude.Include inclusion) throws IOException {
+        if (JsonValues.isIncluded(user.getBirthDate(), inclusion)) {
+            gen.writeFieldName(BIRTH_DATE);
+            if (user.getBirthDate() == null) {
+                gen.writeNull();
+            } else {
+                JsonValues.writeDate(user.getBirthDate(), gen, provider);
+            }
+        }
+    }
+
+    private static void writeFields(User user, JsonGenerator gen, SerializerProvider provider,
+                                    JsonInclude.Include inclusion) throws IOException {
+        JsonValues.writeString(gen, EMAIL, user.getEmail(), inclusion);
+        JsonValues.writeString(gen, FIRST_NAME, user.getFirstName(), inclusion);
+        JsonValues.writeString(gen, LAST_NAME, user.getLastName(), inclusion);
+        writeBirthDate(user, gen, provider, inclusion);
+        JsonValues.writeString(gen, ADDRESS, user.getAddress(), inclusion);
+        JsonValues.writeString(gen, PHONE_NUMBER, user.getPhoneNumber(), inclusion);
+    }
+
+    private static void writeProjection(User user, FieldWriter[] writers, JsonGenerator gen,
+                                        SerializerProvider provider, JsonInclude.Include inclusion)
+            throws IOException {
+        gen.writeStartObject(user);
+        for (FieldWriter writer : writers) {
+            writer.write(user, gen, provider, inclusion);
+        }
+        gen.writeEndObject();
+    }
+
+    public static class Serializer extends StdSerializer<User> {
+
+        public Serializer() {
+            super(User.class);
+        }
+
+        @Override
+        public void serialize(User user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(user);
+            writeFields(user, gen, provider, JsonValues.inclusion(provider, User.class));
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the user document with {@code id} as its first property.
+     */
+    public static class CreatedUserSerializer extends StdSerializer<CreatedUser> {
+
+        public CreatedUserSerializer() {
+            super(CreatedUser.class);
+        }
+
+        @Override
+        public void serialize(CreatedUser created, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(created);
+            gen.writeFieldName(ID);
+            gen.writeNumber(created.id());
+            writeFields(created.user(), gen, provider, JsonValues.inclusion(provider, User.class));
+            gen.writeEndObject();
+        }
+    }
+
+    public static class ProjectedUserSerializer extends StdSerializer<ProjectedUser> {
+
+        public ProjectedUserSerializer() {
+            super(ProjectedUser.class);
+        }
+
+        @Override
+        public void serialize(ProjectedUser projection, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            writeProjection(projection.user(), PROJECTIONS[projection.fields().getMask()], gen, provider,
+                    JsonValues.inclusion(provider, User.class));
+        }
+    }
+
+    public static class ProjectedUsersSerializer extends StdSerializer<ProjectedUsers> {
+
+        public ProjectedUsersSerializer() {
+            super(ProjectedUsers.class);
+        }
+
+        @Override
+        public void serialize(ProjectedUsers projection, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            FieldWriter[] writers = PROJECTIONS[projection.fields().getMask()];
+            JsonInclude.Include inclusion = JsonValues.inclusion(provider, User.class);
+            List<User> users = projection.users();
+            gen.writeStartArray(users, users.size());
+            for (User user : users) {
+                writeProjection(user, writers, gen, provider, inclusion);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes {@code {"users": {"<id>": {...}, ...}, "missingIds": [...]}} with the users in the order they were
+     * requested.
+     */
+    public static class UserBatchSerializer extends StdSerializer<UserBatch> {
+
+        public UserBatchSerializer() {
+            super(UserBatch.class);
+        }
+
+        @Override
+        public void serialize(UserBatch batch, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            FieldWriter[] writers = PROJECTIONS[batch.fields().getMask()];
+            JsonInclude.Include inclusion = JsonValues.inclusion(provider, User.class);
+            gen.writeStartObject(batch);
+            gen.writeFieldName(USERS);
+            gen.writeStartObject(batch.users());
+            for (Map.Entry<Integer, User> entry : batch.users().entrySet()) {
+                gen.writeFieldName(entry.getKey().toString());
+                writeProjection(entry.getValue(), writers, gen, provider, inclusion);
+            }
+            gen.writeEndObject();
+            gen.writeFieldName(MISSING_IDS);
+            List<Integer> missingIds = batch.missingIds();
+            gen.writeStartArray(missingIds, missingIds.size());
+            for (int id : missingIds) {
+                gen.writeNumber(id);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<User> {
+
+        public Deserializer() {
+            super(User.class);
+        }
+
+        @Override
+        public User deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                return (User) ctxt.handleUnexpectedToken(User.class, p);
+            }
+            User user = new User();
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String name = p.currentName();
+                p.nextToken();
+                switch (name) {
+                    case "email" -> user.setEmail(JsonValues.readString(p, ctxt));
+                    case "firstName" -> user.setFirstName(JsonValues.readString(p, ctxt));
+                    case "lastName" -> user.setLastName(JsonValues.readString(p, ctxt));
+                    case "birthDate" -> user.setBirthDate(JsonValues.readDate(p, ctxt));
+                    case "address" -> user.setAddress(JsonValues.readString(p, ctxt));
+                    case "phoneNumber" -> user.setPhoneNumber(JsonValues.readString(p, ctxt));
+                    default -> ctxt.handleUnknownProperty(p, this, User.class, name);
+                }
+            }
+            return user;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package clearsolutions.testassignment.model;
+
+/**
+ * Response to a create: the user document with the id it was stored under as an extra {@code id} property.
+ */
+public record CreatedUser(int id, User user) {
+}
@@ -0,0 +1,7 @@
+package clearsolutions.testassignment.model;
+
+/**
+ * A user that is serialized with only the selected fields.
+ */
+public record ProjectedUser(User user, UserFieldSet fields) {
+}
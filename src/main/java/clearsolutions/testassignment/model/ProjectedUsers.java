@@ -0,0 +1,9 @@
+package clearsolutions.testassignment.model;
+
+import java.util.List;
+
+/**
+ * A list of users that is serialized as an array holding only the selected fields of each user.
+ */
+public record ProjectedUsers(List<User> users, UserFieldSet fields) {
+}
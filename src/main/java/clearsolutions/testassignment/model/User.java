@@ -34,6 +34,15 @@ public class User {
         this.birthDate = birthDate;
     }
 
+    public User(User source) {
+        this.email = source.email;
+        this.firstName = source.firstName;
+        this.lastName = source.lastName;
+        this.birthDate = source.birthDate;
+        this.address = source.address;
+        this.phoneNumber = source.phoneNumber;
+    }
+
     public String getEmail() {
         return email;
     }
@@ -0,0 +1,11 @@
+package clearsolutions.testassignment.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a multi-get: the users found, keyed by id in the order they were asked for, and the ids that do not
+ * exist. Users are serialized with only the selected fields.
+ */
+public record UserBatch(Map<Integer, User> users, List<Integer> missingIds, UserFieldSet fields) {
+}
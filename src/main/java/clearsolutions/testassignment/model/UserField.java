@@ -0,0 +1,42 @@
+package clearsolutions.testassignment.model;
+
+/**
+ * Properties of {@link User} that a client can select, in the order they are serialized.
+ */
+public enum UserField {
+    EMAIL("email"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    BIRTH_DATE("birthDate"),
+    ADDRESS("address"),
+    PHONE_NUMBER("phoneNumber");
+
+    private final String propertyName;
+
+    UserField(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @return the field serialized under {@code propertyName}, or {@code null} if there is none
+     */
+    public static UserField forPropertyName(String propertyName) {
+        return switch (propertyName) {
+            case "email" -> EMAIL;
+            case "firstName" -> FIRST_NAME;
+            case "lastName" -> LAST_NAME;
+            case "birthDate" -> BIRTH_DATE;
+            case "address" -> ADDRESS;
+            case "phoneNumber" -> PHONE_NUMBER;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package clearsolutions.testassignment.model;
+
+import clearsolutions.testassignment.exception.UnknownFieldException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable selection of {@link UserField}s, as requested through a {@code fields=} parameter. There is one
+ * canonical instance per combination, so serializers can precompute a writer per instance.
+ */
+public final class UserFieldSet {
+
+    private static final UserField[] FIELDS = UserField.values();
+    private static final UserFieldSet[] BY_MASK = new UserFieldSet[1 << FIELDS.length];
+
+    static {
+        for (int mask = 0; mask < BY_MASK.length; mask++) {
+            BY_MASK[mask] = new UserFieldSet(mask);
+        }
+    }
+
+    public static final UserFieldSet ALL = BY_MASK[BY_MASK.length - 1];
+
+    private final int mask;
+    private final List<UserField> fields;
+
+    private UserFieldSet(int mask) {
+        this.mask = mask;
+        List<UserField> selected = new ArrayList<>(Integer.bitCount(mask));
+        for (UserField field : FIELDS) {
+            if ((mask & field.bit()) != 0) {
+                selected.add(field);
+            }
+        }
+        this.fields = Collections.unmodifiableList(selected);
+    }
+
+    /**
+     * @return the number of distinct field sets, which bounds {@link #getMask()}
+     */
+    public static int count() {
+        return BY_MASK.length;
+    }
+
+    public static UserFieldSet ofMask(int mask) {
+        return BY_MASK[mask];
+    }
+
+    /**
+     * Parses a comma separated list of property names. Blank entries are ignored.
+     *
+     * @throws UnknownFieldException if a name is not a {@link User} property
+     */
+    public static UserFieldSet parse(String propertyNames) {
+        int mask = 0;
+        int start = 0;
+        while (start <= propertyNames.length()) {
+            int end = propertyNames.indexOf(',', start);
+            if (end < 0) {
+                end = propertyNames.length();
+            }
+            String name = propertyNames.substring(start, end).strip();
+            if (!name.isEmpty()) {
+                UserField field = UserField.forPropertyName(name);
+                if (field == null) {
+                    throw UnknownFieldException.INSTANCE;
+                }
+                mask |= field.bit();
+            }
+            start = end + 1;
+        }
+        return BY_MASK[mask];
+    }
+
+    public boolean contains(UserField field) {
+        return (mask & field.bit()) != 0;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * @return the selected fields in serialization order
+     */
+    public List<UserField> getFields() {
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
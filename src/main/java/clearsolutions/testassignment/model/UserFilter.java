@@ -0,0 +1,16 @@
+package clearsolutions.testassignment.model;
+
+import java.time.LocalDate;
+
+/**
+ * Ad-hoc conditions on users, all of which must hold. A {@code null} component does not constrain the result.
+ *
+ * @param bornFrom    first birth date to include
+ * @param bornTo      last birth date to include
+ * @param emailDomain the part of the email after {@code @}, compared ignoring case
+ * @param present     fields that must be set
+ * @param absent      fields that must be {@code null}
+ */
+public record UserFilter(LocalDate bornFrom, LocalDate bornTo, String emailDomain, UserFieldSet present,
+                         UserFieldSet absent) {
+}
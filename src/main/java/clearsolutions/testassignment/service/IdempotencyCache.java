@@ -0,0 +1,107 @@
+package clearsolutions.testassignment.service;
+
+import clearsolutions.testassignment.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of requests by client supplied idempotency key, so a retried request gets the original
+ * result instead of being executed again. Concurrent duplicates wait for the first execution. Keys expire after a
+ * fixed time to live and the oldest keys are dropped once the cache is full.
+ */
+public class IdempotencyCache<R> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final LinkedHashMap<String, Entry<R>> entries;
+
+    public IdempotencyCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, Duration ttl, LongSupplier nanoTime) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<R>> eldest) {
+                return size() > IdempotencyCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key was seen within the time to live, in which case its
+     * result is returned.
+     *
+     * @param request the request the key was sent with, a reused key must come with an equal request
+     * @throws IdempotencyKeyReusedException if the key was already used for a different request
+     */
+    public R execute(String key, Object request, Supplier<R> action) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Entry<R> existing;
+        synchronized (entries) {
+            long now = nanoTime.getAsLong();
+            evictExpired(now);
+            existing = entries.get(key);
+            if (existing == null) {
+                entries.put(key, new Entry<>(request, result, now + ttlNanos));
+            }
+        }
+        if (existing != null) {
+            if (!Objects.equals(existing.request, request)) {
+                throw IdempotencyKeyReusedException.INSTANCE;
+            }
+            try {
+                return existing.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            R value = action.get();
+            result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                Entry<R> current = entries.get(key);
+                if (current != null && current.result == result) {
+                    entries.remove(key);
+                }
+            }
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            evictExpired(nanoTime.getAsLong());
+            return entries.size();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry<R>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt - now > 0) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    private record Entry<R>(Object request, CompletableFuture<R> result, long expiresAt) {
+    }
+}
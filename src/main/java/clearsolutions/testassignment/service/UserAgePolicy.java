@@ -0,0 +1,23 @@
+package clearsolutions.testassignment.service;
+
+import java.util.Date;
+
+/**
+ * Age rule shared by every path that admits new users, driven by the {@code user.min.age} property.
+ */
+public final class UserAgePolicy {
+
+    private static final long MILLIS_PER_YEAR = 1000L * 60 * 60 * 24 * 365;
+
+    private UserAgePolicy() {
+    }
+
+    public static boolean isOldEnough(Date birthDate, int minAge) {
+        long ageInMillis = System.currentTimeMillis() - birthDate.getTime();
+        return ageInMillis / MILLIS_PER_YEAR >= minAge;
+    }
+
+    public static String rejectionMessage(int minAge) {
+        return "User age is lower then " + minAge;
+    }
+}
@@ -0,0 +1,40 @@
+package clearsolutions.testassignment.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timestamp;
+
+/**
+ * Flight Recorder event emitted for every {@link UserService} operation. Stack traces are off so the event is cheap
+ * enough to leave enabled in every recording.
+ */
+@Name("clearsolutions.UserOperation")
+@Label("User Operation")
+@Category({"Test Assignment", "User Service"})
+@Description("A UserService operation with its target and result size")
+@StackTrace(false)
+class UserOperationEvent extends jdk.jfr.Event {
+
+    static final int NO_USER_ID = -1;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("User Id")
+    @Description("Id of the user operated on, or of the first user of a batch, -1 if none")
+    int userId = NO_USER_ID;
+
+    @Label("Range From")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long rangeFrom;
+
+    @Label("Range To")
+    @Timestamp(Timestamp.MILLISECONDS_SINCE_EPOCH)
+    long rangeTo;
+
+    @Label("Result Size")
+    int resultSize;
+}
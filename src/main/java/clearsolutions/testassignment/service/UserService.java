@@ -1,25 +1,90 @@
 package clearsolutions.testassignment.service;
 
 import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.capacity.UserCapacity;
+import clearsolutions.testassignment.service.capacity.UserSizeEstimator;
+import clearsolutions.testassignment.service.store.PersistentIntMap;
+import clearsolutions.testassignment.service.store.SnapshotUserMap;
+import clearsolutions.testassignment.service.store.TieredUserStore;
+import clearsolutions.testassignment.service.store.UserColumns;
+import clearsolutions.testassignment.util.Deadline;
+import clearsolutions.testassignment.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
+/**
+ * Stores users in a map that publishes immutable versions: writers replace users rather than mutating them, and
+ * scans iterate one published version, so they return a consistent result without blocking writers. Identical
+ * scans that run at the same time are executed once and share the resulting list. Every write is mirrored into a
+ * {@link UserColumns columnar shadow} that ad-hoc filters evaluate without touching the user objects.
+ */
 @Service
-public class UserService {
+public class UserService implements MeterBinder {
 
-    private Map<Integer, User> users = new HashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+    private Map<Integer, User> users = new SnapshotUserMap();
 
     private final AtomicInteger userId = new AtomicInteger();
 
+    private final IdempotencyCache<Integer> idempotencyCache;
+
+    private final SingleFlight<ScanKey, List<User>> scans = new SingleFlight<>();
+
+    private final long slowOperationThresholdNanos;
+
+    private final UserColumns columns;
+
+    private final UserCapacity capacity;
+
     public UserService() {
+        this(10_000, Duration.ofHours(1), Duration.ofMillis(100), new UserColumns(true), UserCapacity.UNLIMITED);
+    }
+
+    UserService(int maxIdempotencyKeys, Duration idempotencyKeyTtl, Duration slowOperationThreshold,
+                UserColumns columns, UserCapacity capacity) {
+        this.idempotencyCache = new IdempotencyCache<>(maxIdempotencyKeys, idempotencyKeyTtl);
+        this.slowOperationThresholdNanos = slowOperationThreshold.toNanos();
+        this.columns = columns;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Keeps the users in the tiered store, which spills rarely used users to disk. Bulk reads go through
+     * {@link Map#forEach} so they stream the cold tier instead of promoting it.
+     */
+    @Autowired
+    public UserService(TieredUserStore userStore, UserColumns columns, UserCapacity capacity,
+                       @Value("${user.idempotency.max-keys}") int maxIdempotencyKeys,
+                       @Value("${user.idempotency.ttl}") Duration idempotencyKeyTtl,
+                       @Value("${user.slow-operation-threshold}") Duration slowOperationThreshold) {
+        this(maxIdempotencyKeys, idempotencyKeyTtl, slowOperationThreshold, columns, capacity);
+        this.users = userStore;
     }
 
     //FOR TESTS ONLY
     public void setUsers(Map<Integer, User> users) {
         this.users = users;
+        columns.clear();
+        columns.update(users, columns.nextStamp());
     }
 
     //FOR TESTS ONLY
@@ -28,72 +93,347 @@ public class UserService {
     }
 
 
-    public User createUser(User user) {
-        users.put(userId.getAndIncrement(), user);
-        return user;
+    /**
+     * @return the id the user was stored under
+     * @throws clearsolutions.testassignment.exception.UserStoreFullException  if the store is at a capacity limit
+     * @throws clearsolutions.testassignment.exception.MemoryPressureException if the heap is nearly full
+     */
+    public int createUser(User user) {
+        capacity.checkCreate(columns.getUsers(), columns.getEstimatedBytes(), 1, UserSizeEstimator.estimate(user));
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        int id = userId.getAndIncrement();
+        // the caller keeps its instance, mutating it must not change the stored user
+        User stored = new User(user);
+        long stamp = columns.nextStamp();
+        users.put(id, stored);
+        columns.update(id, stored, stamp);
+        endOperation(event, startNanos, "create", id, null, null, 1);
+        return id;
+    }
+
+    /**
+     * Creates the user once per idempotency key. A retry with the same key and an equal user returns the id of the
+     * user created by the first request.
+     *
+     * @param idempotencyKey client supplied key, or {@code null} to always create
+     * @throws clearsolutions.testassignment.exception.IdempotencyKeyReusedException if the key was used for a
+     *                                                                                different user
+     */
+    public int createUser(User user, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createUser(user);
+        }
+        return idempotencyCache.execute(idempotencyKey, user, () -> createUser(user));
+    }
+
+    /**
+     * Stores a batch of users under a contiguous id range with a single bulk insert. The batch is refused as a
+     * whole if it does not fit the capacity limits.
+     */
+    public void createUsers(List<User> newUsers) {
+        long newBytes = 0;
+        for (User user : newUsers) {
+            newBytes += UserSizeEstimator.estimate(user);
+        }
+        capacity.checkCreate(columns.getUsers(), columns.getEstimatedBytes(), newUsers.size(), newBytes);
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        int firstId = userId.getAndAdd(newUsers.size());
+        Map<Integer, User> batch = new HashMap<>(newUsers.size() * 4 / 3 + 1);
+        for (int i = 0; i < newUsers.size(); i++) {
+            batch.put(firstId + i, newUsers.get(i));
+        }
+        long stamp = columns.nextStamp();
+        users.putAll(batch);
+        columns.update(batch, stamp);
+        endOperation(event, startNanos, "createBatch", firstId, null, null, newUsers.size());
     }
 
     public User updateUserFields(Integer userId, User userUpdates) {
-        return users.entrySet().stream()
-                .filter(id -> id.getKey().equals(userId))
-                .findFirst()
-                .map(user -> {
-                    User existingUser = user.getValue();
-                    if (userUpdates.getEmail() != null) {
-                        existingUser.setEmail(userUpdates.getEmail());
-                    }
-                    if (userUpdates.getFirstName() != null) {
-                        existingUser.setFirstName(userUpdates.getFirstName());
-                    }
-                    if (userUpdates.getLastName() != null) {
-                        existingUser.setLastName(userUpdates.getLastName());
-                    }
-                    if (userUpdates.getBirthDate() != null) {
-                        existingUser.setBirthDate(userUpdates.getBirthDate());
-                    }
-                    if (userUpdates.getAddress() != null) {
-                        existingUser.setAddress(userUpdates.getAddress());
-                    }
-                    if (userUpdates.getPhoneNumber() != null) {
-                        existingUser.setPhoneNumber(userUpdates.getPhoneNumber());
-                    }
-                    return existingUser;
-                })
-                .orElse(null);
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        long[] stamp = new long[1];
+        User result = users.computeIfPresent(userId, (id, existingUser) -> {
+            stamp[0] = columns.nextStamp();
+            User updatedUser = new User(existingUser);
+            if (userUpdates.getEmail() != null) {
+                updatedUser.setEmail(userUpdates.getEmail());
+            }
+            if (userUpdates.getFirstName() != null) {
+                updatedUser.setFirstName(userUpdates.getFirstName());
+            }
+            if (userUpdates.getLastName() != null) {
+                updatedUser.setLastName(userUpdates.getLastName());
+            }
+            if (userUpdates.getBirthDate() != null) {
+                updatedUser.setBirthDate(userUpdates.getBirthDate());
+            }
+            if (userUpdates.getAddress() != null) {
+                updatedUser.setAddress(userUpdates.getAddress());
+            }
+            if (userUpdates.getPhoneNumber() != null) {
+                updatedUser.setPhoneNumber(userUpdates.getPhoneNumber());
+            }
+            return updatedUser;
+        });
+        if (result != null) {
+            columns.update(userId, result, stamp[0]);
+        }
+        endOperation(event, startNanos, "updateFields", userId, null, null, result == null ? 0 : 1);
+        return result;
     }
 
     public User updateAllUserFields(Integer userId, User userUpdates) {
-        return users.entrySet().stream()
-                .filter(id -> id.getKey().equals(userId))
-                .findFirst()
-                .map(entry -> {
-                    User existingUser = entry.getValue();
-                    existingUser.setEmail(userUpdates.getEmail());
-                    existingUser.setFirstName(userUpdates.getFirstName());
-                    existingUser.setLastName(userUpdates.getLastName());
-                    existingUser.setBirthDate(userUpdates.getBirthDate());
-                    existingUser.setAddress(userUpdates.getAddress());
-                    existingUser.setPhoneNumber(userUpdates.getPhoneNumber());
-                    return existingUser;
-                })
-                .orElse(null);
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        long[] stamp = new long[1];
+        User result = users.computeIfPresent(userId, (id, existingUser) -> {
+            stamp[0] = columns.nextStamp();
+            return new User(userUpdates);
+        });
+        if (result != null) {
+            columns.update(userId, result, stamp[0]);
+        }
+        endOperation(event, startNanos, "updateAll", userId, null, null, result == null ? 0 : 1);
+        return result;
     }
 
     public void deleteUser(Integer userId) {
-        users.remove(userId);
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        User removed = users.remove(userId);
+        if (removed != null) {
+            // nothing writes a removed id again, so a stamp drawn now still follows the earlier writes
+            columns.update(userId, null, columns.nextStamp());
+        }
+        endOperation(event, startNanos, "delete", userId, null, null, removed == null ? 0 : 1);
     }
 
     public List<User> searchUsersByBirthDateRange(Date from, Date to) {
-        return users.values().stream()
-                .filter(user -> user.getBirthDate().after(from) && user.getBirthDate().before(to))
-                .collect(Collectors.toList());
+        return searchUsersByBirthDateRange(from, to, UserFieldSet.ALL);
+    }
+
+    /**
+     * @param fields fields the caller is going to read; users decoded from the cold tier carry only these and the
+     *               birth date
+     */
+    public List<User> searchUsersByBirthDateRange(Date from, Date to, UserFieldSet fields) {
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        List<User> result = scans.execute(new ScanKey("searchByBirthDate", from.getTime(), to.getTime(), fields),
+                () -> {
+                    List<User> matches = new ArrayList<>();
+                    scan(fields, (id, user) -> {
+                        if (user.getBirthDate().after(from) && user.getBirthDate().before(to)) {
+                            matches.add(user);
+                        }
+                    });
+                    return Collections.unmodifiableList(matches);
+                });
+        endOperation(event, startNanos, "searchByBirthDate", UserOperationEvent.NO_USER_ID, from, to,
+                result.size());
+        return result;
     }
 
     public List<User> getAllUsers() {
-        return new ArrayList<>(users.values());
+        return getAllUsers(UserFieldSet.ALL);
+    }
+
+    /**
+     * @param fields fields the caller is going to read; users decoded from the cold tier carry only these and the
+     *               birth date
+     */
+    public List<User> getAllUsers(UserFieldSet fields) {
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        List<User> result = scans.execute(new ScanKey("getAll", 0, 0, fields), () -> {
+            List<User> all = new ArrayList<>(users.size());
+            scan(fields, (id, user) -> all.add(user));
+            return Collections.unmodifiableList(all);
+        });
+        endOperation(event, startNanos, "getAll", UserOperationEvent.NO_USER_ID, null, null, result.size());
+        return result;
     }
 
     public User getUserById(Integer userId) {
-        return users.get(userId);
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        User result = users.get(userId);
+        endOperation(event, startNanos, "getById", userId, null, null, result == null ? 0 : 1);
+        return result;
+    }
+
+    /**
+     * Looks up a batch of users against a single version of the store, without the per-id locking and tier
+     * promotion of {@link #getUserById}.
+     *
+     * @param ids    ids in the order the caller wants the users back; repeated ids are looked up once
+     * @param fields fields the caller is going to read; users decoded from the cold tier carry only these and the
+     *               birth date
+     */
+    public UserBatch getUsersByIds(int[] ids, UserFieldSet fields) {
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        int[] distinctIds = Arrays.stream(ids).distinct().toArray();
+        Map<Integer, User> found = lookup(distinctIds, fields);
+
+        Map<Integer, User> result = new LinkedHashMap<>(found.size() * 4 / 3 + 1);
+        List<Integer> missingIds = new ArrayList<>(distinctIds.length - found.size());
+        for (int id : distinctIds) {
+            User user = found.get(id);
+            if (user == null) {
+                missingIds.add(id);
+            } else {
+                result.put(id, user);
+            }
+        }
+        endOperation(event, startNanos, "getByIds", distinctIds.length == 0 ? UserOperationEvent.NO_USER_ID
+                : distinctIds[0], null, null, result.size());
+        return new UserBatch(result, missingIds, fields);
+    }
+
+    /**
+     * Selects the matching ids from the column shadow, then reads only those users from the store.
+     *
+     * @param fields fields the caller is going to read; users decoded from the cold tier carry only these and the
+     *               birth date
+     */
+    public List<User> filterUsers(UserFilter filter, UserFieldSet fields) {
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        Deadline.current().check();
+        int[] ids = UserColumns.selectedIds(columns.select(filter));
+        Deadline.current().check();
+        Map<Integer, User> found = lookup(ids, fields);
+        List<User> result = new ArrayList<>(found.size());
+        for (int id : ids) {
+            User user = found.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        endOperation(event, startNanos, "filter", UserOperationEvent.NO_USER_ID, null, null, result.size());
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Copy of the store for bulk readers such as exports, taken from a single published version without blocking
+     * concurrent writers.
+     */
+    public Map<Integer, User> getUsersSnapshot() {
+        long startNanos = System.nanoTime();
+        UserOperationEvent event = beginOperation();
+        Map<Integer, User> result = new HashMap<>(users.size() * 4 / 3 + 1);
+        scan(UserFieldSet.ALL, result::put);
+        endOperation(event, startNanos, "snapshot", UserOperationEvent.NO_USER_ID, null, null, result.size());
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.requests.coalesced", scans, SingleFlight::getCoalesced)
+                .tag("layer", "service")
+                .description("Scans that shared the result of an identical scan already in flight")
+                .register(registry);
+        Gauge.builder("user.store.usage", columns, UserColumns::getUsers)
+                .tag("resource", "users")
+                .description("What the user store holds, measured against user.store.capacity")
+                .register(registry);
+        Gauge.builder("user.store.usage", columns, UserColumns::getEstimatedBytes)
+                .tag("resource", "data")
+                .description("What the user store holds, measured against user.store.capacity")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Visits every user, checking the current {@link Deadline} every {@value #DEADLINE_CHECK_INTERVAL} users so an
+     * abandoned scan stops early.
+     *
+     * @throws clearsolutions.testassignment.exception.DeadlineExceededException if the deadline passes
+     */
+    private void scan(UserFieldSet fields, BiConsumer<Integer, User> action) {
+        Deadline deadline = Deadline.current();
+        deadline.check();
+        BiConsumer<Integer, User> visitor = action;
+        if (deadline.isBounded()) {
+            int[] visited = new int[1];
+            visitor = (id, user) -> {
+                if (++visited[0] % DEADLINE_CHECK_INTERVAL == 0) {
+                    deadline.check();
+                }
+                action.accept(id, user);
+            };
+        }
+        if (users instanceof TieredUserStore store) {
+            store.forEach(fields, visitor);
+        } else {
+            users.forEach(visitor);
+        }
+    }
+
+    /**
+     * Reads the given users from a single version of the store without promoting them.
+     *
+     * @param ids distinct ids
+     * @return the users that exist
+     */
+    private Map<Integer, User> lookup(int[] ids, UserFieldSet fields) {
+        Map<Integer, User> found = new HashMap<>(ids.length * 4 / 3 + 1);
+        if (users instanceof TieredUserStore store) {
+            store.getAll(ids, fields, found::put);
+        } else {
+            IntFunction<User> lookup;
+            if (users instanceof SnapshotUserMap map) {
+                PersistentIntMap<User> snapshot = map.snapshot();
+                lookup = snapshot::get;
+            } else {
+                lookup = users::get;
+            }
+            for (int id : ids) {
+                User user = lookup.apply(id);
+                if (user != null) {
+                    found.put(id, user);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static UserOperationEvent beginOperation() {
+        UserOperationEvent event = new UserOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the JFR event if a recording wants it and logs the operation when it took longer than the slow
+     * operation threshold.
+     */
+    private void endOperation(UserOperationEvent event, long startNanos, String operation, int userId,
+                              Date from, Date to, int resultSize) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.userId = userId;
+            event.rangeFrom = from == null ? 0 : from.getTime();
+            event.rangeTo = to == null ? 0 : to.getTime();
+            event.resultSize = resultSize;
+            event.commit();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (elapsedNanos >= slowOperationThresholdNanos) {
+            if (from != null && to != null) {
+                log.warn("Slow user operation {} on birth dates {}..{} returned {} users in {} ms", operation,
+                        from.toInstant(), to.toInstant(), resultSize, elapsedNanos / 1_000_000);
+            } else {
+                log.warn("Slow user operation {} on user {} returned {} users in {} ms", operation, userId,
+                        resultSize, elapsedNanos / 1_000_000);
+            }
+        }
+    }
+
+    private record ScanKey(String operation, long from, long to, UserFieldSet fields) {
     }
 }
@@ -0,0 +1,119 @@
+package clearsolutions.testassignment.service.capacity;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches the tenured heap pool through its collection usage threshold, i.e. the usage left after a garbage
+ * collection, which unlike the current usage does not count garbage that is about to be reclaimed. The JVM
+ * notifies the monitor when a collection leaves the pool above the threshold; the monitor then reports pressure
+ * until a later collection brings it back below. Eden and survivor spaces are not watched: they are expected to
+ * be nearly full right after a young collection, and overflow is promoted to the tenured pool anyway.
+ */
+public class MemoryPressureMonitor implements NotificationListener, MeterBinder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryPressureMonitor.class);
+
+    private static final NotificationFilter THRESHOLD_EXCEEDED = notification ->
+            MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType());
+
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    private final LongAdder pressureEvents = new LongAdder();
+    private volatile boolean underPressure;
+
+    /**
+     * @param thresholdRatio share of the tenured pool's maximum size that may stay in use after a collection; values
+     *                       outside {@code (0, 1)} disable the monitor
+     */
+    public MemoryPressureMonitor(double thresholdRatio) {
+        if (thresholdRatio <= 0 || thresholdRatio >= 1) {
+            return;
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (isTenured(pool) && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * thresholdRatio));
+                pools.add(pool);
+            }
+        }
+        if (!pools.isEmpty()) {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                    .addNotificationListener(this, THRESHOLD_EXCEEDED, null);
+        }
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!underPressure) {
+            log.warn("Heap usage after garbage collection exceeded the threshold: {}", notification.getMessage());
+        }
+        underPressure = true;
+        pressureEvents.increment();
+    }
+
+    public boolean isUnderPressure() {
+        if (underPressure && pools.stream().noneMatch(MemoryPoolMXBean::isCollectionUsageThresholdExceeded)) {
+            underPressure = false;
+            log.info("Heap usage after garbage collection is back under the threshold");
+        }
+        return underPressure;
+    }
+
+    public long getPressureEvents() {
+        return pressureEvents.sum();
+    }
+
+    List<String> getWatchedPools() {
+        return pools.stream().map(MemoryPoolMXBean::getName).toList();
+    }
+
+    /**
+     * The young generation pools of the HotSpot collectors do not support usage thresholds, so the heap pools that
+     * do are the tenured ones, or the single pool of a collector without generations.
+     */
+    static boolean isTenured(MemoryPoolMXBean pool) {
+        return pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.heap.pressure", this, monitor -> monitor.isUnderPressure() ? 1 : 0)
+                .description("Whether new users are refused because the heap is nearly full after collections")
+                .register(registry);
+        FunctionCounter.builder("user.heap.pressure.events", this, MemoryPressureMonitor::getPressureEvents)
+                .description("Collections that left the tenured heap pool above its usage threshold")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        if (pools.isEmpty()) {
+            return;
+        }
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(this);
+        } catch (ListenerNotFoundException ignored) {
+            // never registered, nothing to undo
+        }
+        for (MemoryPoolMXBean pool : pools) {
+            pool.setCollectionUsageThreshold(0);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package clearsolutions.testassignment.service.capacity;
+
+import clearsolutions.testassignment.exception.MemoryPressureException;
+import clearsolutions.testassignment.exception.UserStoreFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Decides whether new users may be stored. The store limits bound the number of users and the size of their data.
+ * The data size counts the {@link UserSizeEstimator estimate} of every user, whether it is held on the heap or
+ * spilled to disk, so it measures the logical size of the store and does not move as users change tiers. Heap use
+ * is guarded by memory pressure instead, which refuses new users while the heap is nearly full after collections,
+ * before the JVM ends up collecting back to back. Reads, updates and deletes are never refused. Concurrent creates
+ * are checked against the same usage, so they can overshoot a limit by the users in flight.
+ */
+public class UserCapacity implements MeterBinder {
+
+    public static final UserCapacity UNLIMITED =
+            new UserCapacity(Integer.MAX_VALUE, Long.MAX_VALUE, new MemoryPressureMonitor(0));
+
+    private final int maxUsers;
+    private final long maxDataBytes;
+    private final MemoryPressureMonitor memoryPressure;
+
+    public UserCapacity(int maxUsers, long maxDataBytes, MemoryPressureMonitor memoryPressure) {
+        this.maxUsers = maxUsers;
+        this.maxDataBytes = maxDataBytes;
+        this.memoryPressure = memoryPressure;
+    }
+
+    /**
+     * @param users        users stored now
+     * @param dataBytes    estimated data size of the users stored now
+     * @param newUsers     users about to be created
+     * @param newDataBytes estimated data size of the users about to be created
+     * @throws MemoryPressureException if the heap is under pressure
+     * @throws UserStoreFullException  if the new users would exceed a store limit
+     */
+    public void checkCreate(int users, long dataBytes, int newUsers, long newDataBytes) {
+        if (memoryPressure.isUnderPressure()) {
+            throw MemoryPressureException.INSTANCE;
+        }
+        if ((long) users + newUsers > maxUsers || dataBytes + newDataBytes > maxDataBytes) {
+            throw UserStoreFullException.INSTANCE;
+        }
+    }
+
+    public int getMaxUsers() {
+        return maxUsers;
+    }
+
+    public long getMaxDataBytes() {
+        return maxDataBytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.store.capacity", this, UserCapacity::getMaxUsers)
+                .tag("resource", "users")
+                .description("Limit on what the user store holds")
+                .register(registry);
+        Gauge.builder("user.store.capacity", this, UserCapacity::getMaxDataBytes)
+                .tag("resource", "data")
+                .description("Limit on what the user store holds")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
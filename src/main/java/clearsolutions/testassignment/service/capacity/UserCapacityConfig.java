@@ -0,0 +1,29 @@
+package clearsolutions.testassignment.service.capacity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class UserCapacityConfig {
+
+    @Value("${user.capacity.max-users}")
+    private int maxUsers;
+
+    @Value("${user.capacity.max-data-size}")
+    private DataSize maxDataSize;
+
+    @Value("${user.capacity.heap-threshold}")
+    private double heapThreshold;
+
+    @Bean(destroyMethod = "close")
+    public MemoryPressureMonitor memoryPressureMonitor() {
+        return new MemoryPressureMonitor(heapThreshold);
+    }
+
+    @Bean
+    public UserCapacity userCapacity(MemoryPressureMonitor memoryPressureMonitor) {
+        return new UserCapacity(maxUsers, maxDataSize.toBytes(), memoryPressureMonitor);
+    }
+}
@@ -0,0 +1,49 @@
+package clearsolutions.testassignment.service.capacity;
+
+import clearsolutions.testassignment.model.User;
+
+/**
+ * Rough heap footprint of a stored user on a 64-bit JVM with compressed references: the user, its date and
+ * strings, and the boxed key and index node that point at it. Strings are counted as Latin-1 when every char
+ * fits, as compact strings store them. The same estimate is counted for users spilled to disk, as the size they
+ * take up once loaded.
+ */
+public final class UserSizeEstimator {
+
+    private static final int USER = 40;
+    private static final int DATE = 24;
+    private static final int STRING = 24;
+    private static final int ARRAY_HEADER = 16;
+    private static final int ENTRY = 48;
+
+    private UserSizeEstimator() {
+    }
+
+    public static int estimate(User user) {
+        return ENTRY + USER
+                + (user.getBirthDate() == null ? 0 : DATE)
+                + estimate(user.getEmail())
+                + estimate(user.getFirstName())
+                + estimate(user.getLastName())
+                + estimate(user.getAddress())
+                + estimate(user.getPhoneNumber());
+    }
+
+    private static int estimate(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING + align(ARRAY_HEADER + value.length() * bytesPerChar);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
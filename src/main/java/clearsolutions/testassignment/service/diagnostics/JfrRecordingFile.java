@@ -0,0 +1,35 @@
+package clearsolutions.testassignment.service.diagnostics;
+
+import java.util.Objects;
+
+public class JfrRecordingFile {
+
+    private final String name;
+    private final long size;
+
+    public JfrRecordingFile(String name, long size) {
+        this.name = name;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JfrRecordingFile that = (JfrRecordingFile) o;
+        return size == that.size && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, size);
+    }
+}
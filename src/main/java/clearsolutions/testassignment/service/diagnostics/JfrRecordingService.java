@@ -0,0 +1,111 @@
+package clearsolutions.testassignment.service.diagnostics;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Runs one Java Flight Recorder recording at a time on demand and keeps the dumped {@code .jfr} files in the
+ * recording directory. Only registered when {@code diagnostics.jfr.enabled=true}.
+ */
+@Service
+@ConditionalOnProperty(name = "diagnostics.jfr.enabled", havingValue = "true")
+public class JfrRecordingService {
+
+    private static final String FILE_PREFIX = "user-api-";
+    private static final String FILE_EXTENSION = ".jfr";
+
+    private Recording recording;
+
+    @Value("${diagnostics.jfr.dir}")
+    private Path recordingDir;
+
+    @Value("${diagnostics.jfr.max-age}")
+    private Duration maxAge;
+
+    //FOR TESTS ONLY
+    void setRecordingDir(Path recordingDir) {
+        this.recordingDir = recordingDir;
+    }
+
+    /**
+     * Starts a recording with one of the JDK's predefined settings, such as {@code default} or {@code profile}.
+     *
+     * @return false if a recording is already running
+     * @throws IllegalArgumentException if there are no settings with that name
+     */
+    public synchronized boolean start(String settings) throws IOException {
+        if (recording != null) {
+            return false;
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings, e);
+        }
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName(FILE_PREFIX + System.currentTimeMillis());
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(maxAge);
+        newRecording.start();
+        recording = newRecording;
+        return true;
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Stops the running recording and dumps it to the recording directory.
+     *
+     * @return the dumped file, or null if no recording was running
+     */
+    public synchronized JfrRecordingFile stop() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Recording stopped = recording;
+        recording = null;
+        try {
+            stopped.stop();
+            Files.createDirectories(recordingDir);
+            String name = stopped.getName() + FILE_EXTENSION;
+            Path file = recordingDir.resolve(name);
+            stopped.dump(file);
+            return new JfrRecordingFile(name, Files.size(file));
+        } finally {
+            stopped.close();
+        }
+    }
+
+    /**
+     * @return the path of a dumped recording, or null if {@code fileName} does not name one
+     */
+    public Path findRecording(String fileName) {
+        if (!fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(FILE_EXTENSION)
+                || fileName.contains("/") || fileName.contains("\\") || fileName.contains("..")) {
+            return null;
+        }
+        Path file = recordingDir.resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package clearsolutions.testassignment.service.export;
+
+import java.util.Objects;
+
+public class ExportFile {
+
+    private final String name;
+    private final ExportFormat format;
+    private final int rows;
+    private final long size;
+
+    public ExportFile(String name, ExportFormat format, int rows, long size) {
+        this.name = name;
+        this.format = format;
+        this.rows = rows;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExportFormat getFormat() {
+        return format;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExportFile that = (ExportFile) o;
+        return rows == that.rows && size == that.size && Objects.equals(name, that.name) && format == that.format;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, format, rows, size);
+    }
+}
@@ -0,0 +1,32 @@
+package clearsolutions.testassignment.service.export;
+
+public enum ExportFormat {
+
+    BINARY("ucol", "application/octet-stream"),
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat fromFileName(String fileName) {
+        for (ExportFormat format : values()) {
+            if (fileName.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+package clearsolutions.testassignment.service.export;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.service.UserService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes snapshots of the whole store to files in {@code user.export.dir}. Every export is a full copy of the store,
+ * so the files are deleted {@code user.export.result-ttl} after they were written.
+ */
+@Service
+public class UserExportService {
+
+    private static final String FILE_PREFIX = "users-";
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    private final UserService userService;
+
+    private final Duration resultTtl;
+
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Value("${user.export.dir}")
+    private Path exportDir;
+
+    public UserExportService(UserService userService, @Value("${user.export.result-ttl}") Duration resultTtl) {
+        this.userService = userService;
+        this.resultTtl = resultTtl;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-export-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the first run waits an interval, so the export directory has been injected by then
+        evictor.scheduleWithFixedDelay(() -> evictExpired(Instant.now()),
+                EVICTION_INTERVAL.toMillis(), EVICTION_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    //FOR TESTS ONLY
+    void setExportDir(Path exportDir) {
+        this.exportDir = exportDir;
+    }
+
+    public ExportFile export(ExportFormat format) {
+        Map<Integer, User> snapshot = userService.getUsersSnapshot();
+        int[] ids = snapshot.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        User[] users = Arrays.stream(ids).mapToObj(snapshot::get).toArray(User[]::new);
+
+        String name = FILE_PREFIX + System.currentTimeMillis() + "-" + sequence.getAndIncrement()
+                + "." + format.getExtension();
+        try {
+            Files.createDirectories(exportDir);
+            Path temp = Files.createTempFile(exportDir, FILE_PREFIX, ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                UserSnapshotWriter.write(format, ids, users, channel);
+                channel.force(false);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            Path target = exportDir.resolve(name);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            return new ExportFile(name, format, ids.length, Files.size(target));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export users", e);
+        }
+    }
+
+    /**
+     * Resolves a previously exported file by name.
+     *
+     * @return the file path, or {@code null} if there is no such export
+     */
+    public Path findExport(String name) {
+        if (!name.startsWith(FILE_PREFIX) || ExportFormat.fromFileName(name) == null
+                || name.contains("/") || name.contains("\\") || name.contains("..")) {
+            return null;
+        }
+        Path file = exportDir.resolve(name);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Deletes the exports, and the temporary files of failed ones, written longer than the TTL before {@code now}.
+     */
+    void evictExpired(Instant now) {
+        if (!Files.isDirectory(exportDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(exportDir, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().plus(resultTtl).isBefore(now)) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException ignored) {
+                    // retried on the next eviction
+                }
+            }
+        } catch (IOException ignored) {
+            // retried on the next eviction
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package clearsolutions.testassignment.service.export;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.util.EpochDays;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Writes a sorted snapshot of users to a file channel.
+ * <p>
+ * The binary format is columnar, big-endian:
+ * <pre>
+ * magic "USRC" | int32 version | int32 rowCount
+ * int32[rowCount] id
+ * int32[rowCount] birthDate as UTC epoch day, {@link EpochDays#NULL_DAY} when absent
+ * for email, firstName, lastName, address, phoneNumber:
+ *     byte[(rowCount + 7) / 8] null bitmap | int32[rowCount] end offsets | int32 dataLength | UTF-8 data
+ * </pre>
+ * The CSV format has a header row and uses RFC 4180 quoting; absent values are written as empty fields.
+ */
+public final class UserSnapshotWriter {
+
+    static final byte[] MAGIC = {'U', 'S', 'R', 'C'};
+    static final int VERSION = 1;
+
+    static final String CSV_HEADER = "id,email,firstName,lastName,birthDate,address,phoneNumber";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Function<User, String>[] STRING_COLUMNS = columns(
+            User::getEmail, User::getFirstName, User::getLastName, User::getAddress, User::getPhoneNumber);
+
+    private UserSnapshotWriter() {
+    }
+
+    public static void write(ExportFormat format, int[] ids, User[] users, FileChannel channel) throws IOException {
+        switch (format) {
+            case BINARY -> writeBinary(ids, users, channel);
+            case CSV -> writeCsv(ids, users, channel);
+        }
+    }
+
+    static void writeBinary(int[] ids, User[] users, FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        int rows = ids.length;
+        buffer.put(MAGIC).putInt(VERSION).putInt(rows);
+
+        for (int id : ids) {
+            ensureCapacity(buffer, Integer.BYTES, channel);
+            buffer.putInt(id);
+        }
+        for (User user : users) {
+            ensureCapacity(buffer, Integer.BYTES, channel);
+            buffer.putInt(EpochDays.fromDate(user.getBirthDate()));
+        }
+
+        for (Function<User, String> column : STRING_COLUMNS) {
+            byte[] nulls = new byte[(rows + 7) / 8];
+            byte[][] values = new byte[rows][];
+            for (int i = 0; i < rows; i++) {
+                String value = column.apply(users[i]);
+                if (value == null) {
+                    nulls[i >>> 3] |= (byte) (1 << (i & 7));
+                } else {
+                    values[i] = value.getBytes(StandardCharsets.UTF_8);
+                }
+            }
+            put(buffer, nulls, channel);
+            int end = 0;
+            for (byte[] value : values) {
+                end += value == null ? 0 : value.length;
+                ensureCapacity(buffer, Integer.BYTES, channel);
+                buffer.putInt(end);
+            }
+            ensureCapacity(buffer, Integer.BYTES, channel);
+            buffer.putInt(end);
+            for (byte[] value : values) {
+                if (value != null) {
+                    put(buffer, value, channel);
+                }
+            }
+        }
+        flush(buffer, channel);
+    }
+
+    static void writeCsv(int[] ids, User[] users, FileChannel channel) throws IOException {
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        char[] date = new char[EpochDays.FORMATTED_LENGTH];
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        for (int i = 0; i < ids.length; i++) {
+            User user = users[i];
+            writer.write(Integer.toString(ids[i]));
+            writer.write(',');
+            writeCsvField(writer, user.getEmail());
+            writer.write(',');
+            writeCsvField(writer, user.getFirstName());
+            writer.write(',');
+            writeCsvField(writer, user.getLastName());
+            writer.write(',');
+            if (user.getBirthDate() != null) {
+                EpochDays.format(EpochDays.fromDate(user.getBirthDate()), date, 0);
+                writer.write(date);
+            }
+            writer.write(',');
+            writeCsvField(writer, user.getAddress());
+            writer.write(',');
+            writeCsvField(writer, user.getPhoneNumber());
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void put(ByteBuffer buffer, byte[] bytes, FileChannel channel) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureCapacity(buffer, 1, channel);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private static void ensureCapacity(ByteBuffer buffer, int bytes, FileChannel channel) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(buffer, channel);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @SafeVarargs
+    private static Function<User, String>[] columns(Function<User, String>... columns) {
+        return columns;
+    }
+}
@@ -0,0 +1,85 @@
+package clearsolutions.testassignment.service.importer;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.util.EpochDays;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses CSV records laid out by a header row, using the column names of the CSV export.
+ * Quoted fields follow RFC 4180 but must not span lines, since the file is split on line boundaries.
+ */
+class CsvUserRecordParser implements UserRecordParser {
+
+    private static final List<String> FIELDS =
+            List.of("email", "firstName", "lastName", "birthDate", "address", "phoneNumber");
+
+    private final int[] columns = new int[FIELDS.size()];
+
+    CsvUserRecordParser(String header) {
+        Arrays.fill(columns, -1);
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            int field = FIELDS.indexOf(names.get(i).trim());
+            if (field >= 0) {
+                columns[field] = i;
+            }
+        }
+    }
+
+    @Override
+    public User parse(byte[] line, int length) {
+        List<String> values = split(new String(line, 0, length, StandardCharsets.UTF_8));
+        String birthDate = value(values, 3);
+        return new User.Builder()
+                .email(value(values, 0))
+                .firstName(value(values, 1))
+                .lastName(value(values, 2))
+                .birthDate(birthDate == null ? null : EpochDays.toDate(EpochDays.parse(birthDate)))
+                .address(value(values, 4))
+                .phoneNumber(value(values, 5))
+                .build();
+    }
+
+    private String value(List<String> values, int field) {
+        int column = columns[field];
+        if (column < 0 || column >= values.size() || values.get(column).isEmpty()) {
+            return null;
+        }
+        return values.get(column);
+    }
+
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,5 @@
+package clearsolutions.testassignment.service.importer;
+
+public enum ImportFormat {
+    CSV, NDJSON
+}
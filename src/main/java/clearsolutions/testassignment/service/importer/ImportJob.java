@@ -0,0 +1,123 @@
+package clearsolutions.testassignment.service.importer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ImportJob {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final ImportFormat format;
+    private final long totalBytes;
+    private final Instant startedAt = Instant.now();
+    private final int maxReportedRejections;
+
+    private final AtomicLong processedBytes = new AtomicLong();
+    private final AtomicLong importedRows = new AtomicLong();
+    private final AtomicLong rejectedRows = new AtomicLong();
+    private final List<RejectedRow> rejections = new ArrayList<>();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    ImportJob(String id, ImportFormat format, long totalBytes, int maxReportedRejections) {
+        this.id = id;
+        this.format = format;
+        this.totalBytes = totalBytes;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getProcessedBytes() {
+        return processedBytes.get();
+    }
+
+    public double getProgress() {
+        return totalBytes == 0 ? 1.0 : (double) processedBytes.get() / totalBytes;
+    }
+
+    public long getImportedRows() {
+        return importedRows.get();
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows.get();
+    }
+
+    public double getRowsPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return (importedRows.get() + rejectedRows.get()) * 1000.0 / millis;
+    }
+
+    /**
+     * The first rejected records, up to {@code user.import.max-reported-rejections}.
+     */
+    public List<RejectedRow> getRejections() {
+        synchronized (rejections) {
+            return new ArrayList<>(rejections);
+        }
+    }
+
+    void addProcessedBytes(long bytes) {
+        processedBytes.addAndGet(bytes);
+    }
+
+    void addImportedRows(int rows) {
+        importedRows.addAndGet(rows);
+    }
+
+    void reject(long offset, String reason) {
+        rejectedRows.incrementAndGet();
+        synchronized (rejections) {
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new RejectedRow(offset, reason));
+            }
+        }
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(Throwable cause) {
+        failure = cause.getMessage();
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,20 @@
+package clearsolutions.testassignment.service.importer;
+
+import clearsolutions.testassignment.model.User;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+
+class NdjsonUserRecordParser implements UserRecordParser {
+
+    private final ObjectReader reader;
+
+    NdjsonUserRecordParser(ObjectReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public User parse(byte[] line, int length) throws IOException {
+        return reader.readValue(line, 0, length);
+    }
+}
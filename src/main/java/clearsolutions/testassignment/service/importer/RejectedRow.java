@@ -0,0 +1,38 @@
+package clearsolutions.testassignment.service.importer;
+
+import java.util.Objects;
+
+public class RejectedRow {
+
+    private final long offset;
+    private final String reason;
+
+    public RejectedRow(long offset, String reason) {
+        this.offset = offset;
+        this.reason = reason;
+    }
+
+    /**
+     * Byte offset of the rejected record in the uploaded file.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RejectedRow that = (RejectedRow) o;
+        return offset == that.offset && Objects.equals(reason, that.reason);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, reason);
+    }
+}
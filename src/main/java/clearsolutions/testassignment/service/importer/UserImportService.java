@@ -0,0 +1,270 @@
+package clearsolutions.testassignment.service.importer;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.service.UserAgePolicy;
+import clearsolutions.testassignment.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Loads users from CSV or NDJSON files. The uploaded file is memory-mapped and split on line boundaries into
+ * slices that are parsed, validated and inserted in batches by a shared worker pool.
+ */
+@Service
+public class UserImportService {
+
+    private static final int MAX_SLICE_BYTES = 1 << 30;
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private final UserService userService;
+    private final Validator validator;
+    private final ObjectReader userReader;
+
+    private final ExecutorService workers;
+    private final int parallelism;
+    private final AtomicInteger jobSequence = new AtomicInteger();
+    private final Map<String, ImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    });
+
+    @Value("${user.min.age}")
+    private int userAgeRestriction;
+
+    @Value("${user.import.batch-size}")
+    private int batchSize;
+
+    @Value("${user.import.max-reported-rejections}")
+    private int maxReportedRejections;
+
+    public UserImportService(UserService userService, Validator validator, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.validator = validator;
+        this.userReader = objectMapper.readerFor(User.class);
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //FOR TESTS ONLY
+    void setLimits(int userAgeRestriction, int batchSize, int maxReportedRejections) {
+        this.userAgeRestriction = userAgeRestriction;
+        this.batchSize = batchSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Spools {@code content} to a temporary file and starts importing it in the background.
+     */
+    public ImportJob startImport(InputStream content, ImportFormat format) throws IOException {
+        Path file = Files.createTempFile("user-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            return startImport(file, format, true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    public ImportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    ImportJob startImport(Path file, ImportFormat format, boolean deleteWhenDone) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long dataStart = 0;
+            UserRecordParser parser;
+            if (format == ImportFormat.CSV) {
+                dataStart = nextLineStart(channel, 0, size);
+                ByteBuffer header = ByteBuffer.allocate((int) dataStart);
+                channel.read(header, 0);
+                parser = new CsvUserRecordParser(new String(header.array(), StandardCharsets.UTF_8).strip());
+            } else {
+                parser = new NdjsonUserRecordParser(userReader);
+            }
+
+            ImportJob job = new ImportJob("import-" + jobSequence.incrementAndGet(), format, size,
+                    maxReportedRejections);
+            job.addProcessedBytes(dataStart);
+            jobs.put(job.getId(), job);
+
+            List<CompletableFuture<Void>> slices = new ArrayList<>();
+            for (long[] slice : split(channel, dataStart, size)) {
+                slices.add(CompletableFuture.runAsync(() -> importSlice(job, channel, slice[0], slice[1], parser),
+                        workers));
+            }
+            CompletableFuture.allOf(slices.toArray(CompletableFuture[]::new)).whenComplete((ignored, error) -> {
+                if (error == null) {
+                    job.complete();
+                } else {
+                    job.fail(error instanceof CompletionException ? error.getCause() : error);
+                }
+                close(channel, file, deleteWhenDone);
+            });
+            return job;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Cuts {@code [start, end)} into roughly equal slices whose boundaries fall just after a line terminator.
+     */
+    private List<long[]> split(FileChannel channel, long start, long end) throws IOException {
+        long length = end - start;
+        int count = (int) Math.max(parallelism, (length + MAX_SLICE_BYTES - 1) / MAX_SLICE_BYTES);
+        long target = Math.max(1, length / count);
+        List<long[]> slices = new ArrayList<>(count);
+        long sliceStart = start;
+        while (sliceStart < end) {
+            long sliceEnd = sliceStart + target >= end ? end : nextLineStart(channel, sliceStart + target, end);
+            slices.add(new long[]{sliceStart, sliceEnd});
+            sliceStart = sliceEnd;
+        }
+        return slices;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < end) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return Math.min(end, position + i + 1);
+                }
+            }
+            position += read;
+        }
+        return end;
+    }
+
+    private void importSlice(ImportJob job, FileChannel channel, long start, long end, UserRecordParser parser) {
+        MappedByteBuffer slice;
+        try {
+            slice = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] line = new byte[512];
+        List<User> batch = new ArrayList<>(batchSize);
+        int limit = slice.limit();
+        int lineStart = 0;
+        int reportedUpTo = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && slice.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - lineStart;
+            if (length > 0 && slice.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                slice.get(lineStart, line, 0, length);
+                User user = parse(job, parser, line, length, start + lineStart);
+                if (user != null) {
+                    batch.add(user);
+                }
+            }
+            lineStart = lineEnd + 1;
+
+            if (batch.size() >= batchSize) {
+                insert(job, batch);
+                job.addProcessedBytes(Math.min(lineStart, limit) - reportedUpTo);
+                reportedUpTo = Math.min(lineStart, limit);
+            }
+        }
+        insert(job, batch);
+        job.addProcessedBytes(limit - reportedUpTo);
+    }
+
+    private User parse(ImportJob job, UserRecordParser parser, byte[] line, int length, long offset) {
+        User user;
+        try {
+            user = parser.parse(line, length);
+        } catch (Exception e) {
+            job.reject(offset, "Malformed record: " + e.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            job.reject(offset, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        if (!UserAgePolicy.isOldEnough(user.getBirthDate(), userAgeRestriction)) {
+            job.reject(offset, UserAgePolicy.rejectionMessage(userAgeRestriction));
+            return null;
+        }
+        return user;
+    }
+
+    private void insert(ImportJob job, List<User> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        userService.createUsers(batch);
+        job.addImportedRows(batch.size());
+        batch.clear();
+    }
+
+    private static void close(FileChannel channel, Path file, boolean delete) {
+        try {
+            channel.close();
+            if (delete) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ignored) {
+            // the job outcome is already recorded, a leftover temp file is harmless
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package clearsolutions.testassignment.service.importer;
+
+import clearsolutions.testassignment.model.User;
+
+/**
+ * Parses one record, given as the UTF-8 bytes of a single line without its terminator.
+ */
+interface UserRecordParser {
+
+    User parse(byte[] line, int length) throws Exception;
+}
@@ -0,0 +1,195 @@
+package clearsolutions.testassignment.service.report;
+
+import clearsolutions.testassignment.admission.Priority;
+import clearsolutions.testassignment.exception.DeadlineExceededException;
+import clearsolutions.testassignment.util.Deadline;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+public class ReportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final ReportQuery query;
+    private final Priority priority;
+    private final long sequence;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Instant expiresAt;
+    private volatile String failure;
+    private volatile long rows;
+    private volatile long size;
+    private volatile long cpuTimeNanos;
+
+    private Deadline deadline = Deadline.NONE;
+    private long threadId;
+    private long cpuStartNanos;
+    private boolean cancelRequested;
+    private boolean cpuLimitExceeded;
+    private Path resultFile;
+
+    ReportJob(String id, ReportQuery query, Priority priority, long sequence) {
+        this.id = id;
+        this.query = query;
+        this.priority = priority;
+        this.sequence = sequence;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ReportQuery.Kind getKind() {
+        return query.getKind();
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * When the job and its result are forgotten, set once the job has finished.
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Size of the result file in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * CPU time used by the job so far, sampled periodically while it runs.
+     */
+    public long getCpuTimeMillis() {
+        return cpuTimeNanos / 1_000_000;
+    }
+
+    ReportQuery query() {
+        return query;
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    synchronized Deadline deadline() {
+        return deadline;
+    }
+
+    synchronized long threadId() {
+        return threadId;
+    }
+
+    synchronized long cpuStartNanos() {
+        return cpuStartNanos;
+    }
+
+    synchronized Path resultFile() {
+        return resultFile;
+    }
+
+    void updateCpuTime(long nanos) {
+        cpuTimeNanos = nanos;
+    }
+
+    /**
+     * @return false if the job was cancelled before a worker picked it up
+     */
+    synchronized boolean start(Deadline deadline, long threadId, long cpuStartNanos) {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        this.deadline = deadline;
+        this.threadId = threadId;
+        this.cpuStartNanos = cpuStartNanos;
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+        return true;
+    }
+
+    synchronized void complete(Path resultFile, long rows, long size, Duration ttl) {
+        this.resultFile = resultFile;
+        this.rows = rows;
+        this.size = size;
+        finish(Status.COMPLETED, ttl);
+    }
+
+    synchronized void fail(Throwable cause, Duration ttl) {
+        if (cancelRequested) {
+            finish(Status.CANCELLED, ttl);
+            return;
+        }
+        if (cause instanceof DeadlineExceededException) {
+            failure = cpuLimitExceeded ? "CPU time limit exceeded" : "Time limit exceeded";
+        } else {
+            failure = cause.getMessage();
+        }
+        finish(Status.FAILED, ttl);
+    }
+
+    /**
+     * Stops the job at its next deadline check, or right away if it has not started yet.
+     *
+     * @return true if the job was still queued
+     */
+    synchronized boolean cancel(Duration ttl) {
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED, ttl);
+            return true;
+        }
+        if (status == Status.RUNNING) {
+            cancelRequested = true;
+            deadline.cancel();
+        }
+        return false;
+    }
+
+    synchronized void exceedCpuLimit() {
+        if (status == Status.RUNNING) {
+            cpuLimitExceeded = true;
+            deadline.cancel();
+        }
+    }
+
+    private void finish(Status finalStatus, Duration ttl) {
+        finishedAt = Instant.now();
+        expiresAt = finishedAt.plus(ttl);
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,67 @@
+package clearsolutions.testassignment.service.report;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.UserService;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One of the list queries of the user API, run in the background by {@link UserReportService}.
+ */
+public final class ReportQuery {
+
+    public enum Kind {
+        ALL, SEARCH_BY_BIRTH_DATE, FILTER
+    }
+
+    private final Kind kind;
+    private final UserFieldSet fields;
+    private final Function<UserService, List<User>> scan;
+
+    ReportQuery(Kind kind, UserFieldSet fields, Function<UserService, List<User>> scan) {
+        this.kind = kind;
+        this.fields = fields;
+        this.scan = scan;
+    }
+
+    /**
+     * @param fields properties to write for each user, {@code null} for all of them
+     */
+    public static ReportQuery all(UserFieldSet fields) {
+        return new ReportQuery(Kind.ALL, fields,
+                userService -> userService.getAllUsers(fields == null ? UserFieldSet.ALL : fields));
+    }
+
+    /**
+     * @param fields properties to write for each user, {@code null} for all of them
+     */
+    public static ReportQuery searchByBirthDate(Date from, Date to, UserFieldSet fields) {
+        return new ReportQuery(Kind.SEARCH_BY_BIRTH_DATE, fields,
+                userService -> userService.searchUsersByBirthDateRange(from, to,
+                        fields == null ? UserFieldSet.ALL : fields));
+    }
+
+    /**
+     * @param fields properties to write for each user, {@code null} for all of them
+     */
+    public static ReportQuery filter(UserFilter filter, UserFieldSet fields) {
+        return new ReportQuery(Kind.FILTER, fields,
+                userService -> userService.filterUsers(filter, fields == null ? UserFieldSet.ALL : fields));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    UserFieldSet fields() {
+        return fields;
+    }
+
+    List<User> run(UserService userService) {
+        return scan.apply(userService);
+    }
+}
@@ -0,0 +1,316 @@
+package clearsolutions.testassignment.service.report;
+
+import clearsolutions.testassignment.admission.Priority;
+import clearsolutions.testassignment.exception.ReportQueueFullException;
+import clearsolutions.testassignment.model.ProjectedUser;
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.service.UserService;
+import clearsolutions.testassignment.util.Deadline;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs list queries in the background and keeps their JSON results on local disk, so large dumps do not hold a
+ * request thread while they scan and serialize.
+ * <p>
+ * Jobs wait in a bounded queue ordered by {@link Priority}, then by submission, and run on a fixed pool of
+ * workers. Each running job has a {@link Deadline} of {@code user.report.max-run-time}; a watchdog samples the CPU
+ * time of the worker threads and cancels that deadline once a job uses more than {@code user.report.max-cpu-time},
+ * so both limits stop a job at the same cooperative checks as a request deadline. Finished jobs and their files
+ * are forgotten {@code user.report.result-ttl} after they end.
+ */
+@Service
+public class UserReportService implements MeterBinder {
+
+    private static final String FILE_PREFIX = "report-";
+    private static final String FILE_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEADLINE_CHECK_INTERVAL = 4096;
+    private static final Duration WATCH_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    private final UserService userService;
+    private final ObjectWriter writer;
+    private final Path resultDir;
+    private final int maxQueued;
+    private final Duration maxRunTime;
+    private final long maxCpuNanos;
+    private final Duration resultTtl;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService watchdog;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeEnabled;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    public UserReportService(UserService userService, ObjectMapper objectMapper,
+                             @Value("${user.report.dir}") Path resultDir,
+                             @Value("${user.report.workers}") int workers,
+                             @Value("${user.report.max-queued}") int maxQueued,
+                             @Value("${user.report.max-run-time}") Duration maxRunTime,
+                             @Value("${user.report.max-cpu-time}") Duration maxCpuTime,
+                             @Value("${user.report.result-ttl}") Duration resultTtl) {
+        this.userService = userService;
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.resultDir = resultDir;
+        this.maxQueued = maxQueued;
+        this.maxRunTime = maxRunTime;
+        this.maxCpuNanos = maxCpuTime.toNanos();
+        this.resultTtl = resultTtl;
+        this.cpuTimeEnabled = enableCpuTime(threads);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "user-report-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-report-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::enforceCpuLimits,
+                WATCH_INTERVAL.toMillis(), WATCH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        watchdog.scheduleWithFixedDelay(() -> evictExpired(Instant.now()),
+                0, EVICTION_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        workers.shutdownNow();
+        for (ReportJob job : jobs.values()) {
+            job.cancel(resultTtl);
+        }
+    }
+
+    /**
+     * Queues {@code query} to run in the background.
+     *
+     * @throws ReportQueueFullException if {@code user.report.max-queued} jobs are already waiting
+     */
+    public synchronized ReportJob submit(ReportQuery query, Priority priority) {
+        if (workers.getQueue().size() >= maxQueued) {
+            throw ReportQueueFullException.INSTANCE;
+        }
+        ReportJob job = new ReportJob(FILE_PREFIX + UUID.randomUUID(), query, priority,
+                sequence.incrementAndGet());
+        jobs.put(job.getId(), job);
+        workers.execute(new Task(this, job));
+        return job;
+    }
+
+    public ReportJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * @return the result file of a completed job, or {@code null} if there is none
+     */
+    public Path findResult(ReportJob job) {
+        Path file = job.resultFile();
+        return file != null && Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Cancels the job if it has not finished yet and forgets it along with its result.
+     *
+     * @return false if there is no such job
+     */
+    public boolean delete(String jobId) {
+        ReportJob job = jobs.remove(jobId);
+        if (job == null) {
+            return false;
+        }
+        if (job.cancel(resultTtl)) {
+            workers.remove(new Task(this, job));
+        }
+        deleteQuietly(job.resultFile());
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.report.jobs", workers, executor -> executor.getQueue().size())
+                .tag("status", "queued")
+                .description("Report jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("user.report.jobs", workers, ThreadPoolExecutor::getActiveCount)
+                .tag("status", "running")
+                .description("Report jobs being run")
+                .register(registry);
+    }
+
+    /**
+     * Cancels the deadline of running jobs that have used up their CPU time.
+     */
+    void enforceCpuLimits() {
+        if (!cpuTimeEnabled) {
+            return;
+        }
+        for (ReportJob job : jobs.values()) {
+            if (job.getStatus() != ReportJob.Status.RUNNING) {
+                continue;
+            }
+            long threadCpuNanos = threads.getThreadCpuTime(job.threadId());
+            if (threadCpuNanos < 0) {
+                continue;
+            }
+            long used = threadCpuNanos - job.cpuStartNanos();
+            job.updateCpuTime(used);
+            if (used > maxCpuNanos) {
+                job.exceedCpuLimit();
+            }
+        }
+    }
+
+    /**
+     * Forgets jobs that expired at {@code now}, and deletes result files older than the TTL that belong to no
+     * known job, such as files left by an earlier run of the application.
+     */
+    void evictExpired(Instant now) {
+        for (ReportJob job : jobs.values()) {
+            Instant expiresAt = job.getExpiresAt();
+            if (expiresAt != null && !expiresAt.isAfter(now) && jobs.remove(job.getId(), job)) {
+                deleteQuietly(job.resultFile());
+            }
+        }
+
+        if (!Files.isDirectory(resultDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(resultDir, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String jobId = name.substring(0, name.indexOf('.') < 0 ? name.length() : name.indexOf('.'));
+                if (!jobs.containsKey(jobId)
+                        && Files.getLastModifiedTime(file).toInstant().plus(resultTtl).isBefore(now)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException ignored) {
+            // retried on the next eviction
+        }
+    }
+
+    private void run(ReportJob job) {
+        Deadline deadline = Deadline.after(maxRunTime);
+        if (!job.start(deadline, Thread.currentThread().getId(), cpuTime())) {
+            return;
+        }
+        Path temp = resultDir.resolve(job.getId() + TEMP_SUFFIX);
+        try (Deadline.Scope ignored = deadline.attach()) {
+            List<User> users = job.query().run(userService);
+            Files.createDirectories(resultDir);
+            long rows = write(users, job.query().fields(), temp);
+            Path target = resultDir.resolve(job.getId() + FILE_SUFFIX);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            job.updateCpuTime(cpuTime() - job.cpuStartNanos());
+            job.complete(target, rows, Files.size(target), resultTtl);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            job.updateCpuTime(cpuTime() - job.cpuStartNanos());
+            job.fail(e, resultTtl);
+        }
+    }
+
+    /**
+     * Writes the same JSON array the synchronous endpoint would return, one user at a time.
+     */
+    private long write(List<User> users, UserFieldSet fields, Path file) throws IOException {
+        Deadline deadline = Deadline.current();
+        long rows = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+             JsonGenerator generator = writer.createGenerator(out)) {
+            generator.writeStartArray();
+            for (User user : users) {
+                if (++rows % DEADLINE_CHECK_INTERVAL == 0) {
+                    deadline.check();
+                }
+                writer.writeValue(generator, fields == null ? user : new ProjectedUser(user, fields));
+            }
+            generator.writeEndArray();
+        }
+        return rows;
+    }
+
+    private long cpuTime() {
+        return cpuTimeEnabled ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static boolean enableCpuTime(ThreadMXBean threads) {
+        if (!threads.isThreadCpuTimeSupported()) {
+            return false;
+        }
+        try {
+            threads.setThreadCpuTimeEnabled(true);
+            return true;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // an orphaned file is removed by a later eviction
+        }
+    }
+
+    /**
+     * Queue entry; equal for the same job so a cancelled job can be taken off the queue.
+     */
+    private record Task(UserReportService service, ReportJob job) implements Runnable, Comparable<Task> {
+
+        @Override
+        public void run() {
+            service.run(job);
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = job.getPriority().compareTo(other.job.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(job.sequence(), other.job.sequence());
+        }
+    }
+}
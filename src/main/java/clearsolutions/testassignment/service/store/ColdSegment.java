@@ -0,0 +1,136 @@
+package clearsolutions.testassignment.service.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file of encoded user records. The file is deleted when the segment is closed. Scans that run
+ * outside the store lock {@link #retain()} the segment so a concurrent compaction cannot close it under them.
+ */
+final class ColdSegment {
+
+    private static final int READ_AHEAD = 256;
+    private static final int SCAN_BUFFER = 1 << 20;
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(READ_AHEAD));
+
+    private final FileChannel channel;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private long size;
+
+    private ColdSegment(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static ColdSegment create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "users-", ".cold");
+        return new ColdSegment(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE));
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Appends a record produced by {@link UserRecordCodec#encode}. Callers serialise appends.
+     *
+     * @return the offset of the record
+     */
+    long append(ByteBuffer record) throws IOException {
+        long offset = size;
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        size = position;
+        return offset;
+    }
+
+    /**
+     * @return the record at {@code offset}, positioned just after its length prefix
+     */
+    ByteBuffer read(long offset) throws IOException {
+        ByteBuffer buffer = READ_BUFFER.get().clear();
+        readFully(buffer, offset, Math.min(READ_AHEAD, (int) Math.min(Integer.MAX_VALUE, size - offset)));
+        int length = buffer.getInt(0);
+        if (UserRecordCodec.LENGTH_PREFIX + length > buffer.capacity()) {
+            ByteBuffer whole = ByteBuffer.allocate(UserRecordCodec.LENGTH_PREFIX + length);
+            whole.put(buffer.flip());
+            readFully(whole, offset + whole.position(), whole.remaining());
+            buffer = whole;
+        }
+        return buffer.limit(UserRecordCodec.LENGTH_PREFIX + length).position(UserRecordCodec.LENGTH_PREFIX);
+    }
+
+    /**
+     * Reads the file sequentially and passes the records at the given offsets to {@code consumer}, skipping
+     * everything in between.
+     *
+     * @param offsets ascending record offsets
+     */
+    void scan(long[] offsets, Consumer<ByteBuffer> consumer) {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        long bufferStart = 0;
+        buffer.limit(0);
+        try {
+            for (long offset : offsets) {
+                int relative = (int) Math.min(Integer.MAX_VALUE, offset - bufferStart);
+                if (offset < bufferStart || relative + UserRecordCodec.LENGTH_PREFIX > buffer.limit()
+                        || relative + UserRecordCodec.LENGTH_PREFIX + buffer.getInt(relative) > buffer.limit()) {
+                    int length = read(offset).remaining();
+                    buffer = ByteBuffer.allocate(Math.max(SCAN_BUFFER, UserRecordCodec.LENGTH_PREFIX + length));
+                    readFully(buffer, offset, (int) Math.min(buffer.capacity(), size - offset));
+                    buffer.flip();
+                    bufferStart = offset;
+                    relative = 0;
+                }
+                int length = buffer.getInt(relative);
+                consumer.accept(buffer.duplicate()
+                        .limit(relative + UserRecordCodec.LENGTH_PREFIX + length)
+                        .position(relative + UserRecordCodec.LENGTH_PREFIX));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    boolean retain() {
+        for (int count = references.get(); count > 0; count = references.get()) {
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the file is deleted on close, nothing is left to clean up
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position, int length) throws IOException {
+        int end = buffer.position() + length;
+        buffer.limit(end);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of user store file at " + position);
+            }
+            position += read;
+        }
+    }
+}
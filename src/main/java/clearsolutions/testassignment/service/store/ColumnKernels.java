@@ -0,0 +1,35 @@
+package clearsolutions.testassignment.service.store;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Predicates evaluated over a whole int column at once, producing a selection bitmap: bit {@code i % 64} of word
+ * {@code i / 64} is set when row {@code i} matches.
+ */
+interface ColumnKernels {
+
+    /**
+     * Overwrites the first {@code (length + 63) / 64} words of {@code selection} with the rows whose value lies in
+     * {@code min..max}, both inclusive. Bits past {@code length} are cleared.
+     */
+    void selectRange(int[] values, int length, int min, int max, long[] selection);
+
+    /**
+     * @param vectorEnabled whether to use the Vector API when the JVM was started with
+     *                      {@code --add-modules jdk.incubator.vector}
+     * @return the vectorized kernels if enabled and available, the scalar ones otherwise
+     */
+    static ColumnKernels load(boolean vectorEnabled) {
+        if (vectorEnabled && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (ColumnKernels) Class.forName(ColumnKernels.class.getPackageName() + ".VectorColumnKernels")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LoggerFactory.getLogger(ColumnKernels.class)
+                        .warn("Vector API is not usable, falling back to scalar column filters", e);
+            }
+        }
+        return new ScalarColumnKernels();
+    }
+}
@@ -0,0 +1,197 @@
+package clearsolutions.testassignment.service.store;
+
+/**
+ * Immutable map from int keys to values, stored as a hash array mapped trie over the key bits. Updates copy only
+ * the path from the root to the changed entry and share everything else with the previous version, so a reader
+ * holding a version keeps a consistent view for as long as it likes, at no cost to writers.
+ */
+public final class PersistentIntMap<V> {
+
+    @FunctionalInterface
+    public interface EntryVisitor<V> {
+        void visit(int key, V value);
+    }
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Node(0, new Object[0]), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Node node = root;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = 1 << ((key >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[node.index(bit)];
+            if (slot instanceof Node child) {
+                node = child;
+            } else {
+                Leaf leaf = (Leaf) slot;
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return a map with {@code key} bound to {@code value}, or this map if it already was
+     */
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        Node updated = put(root, 0, new Leaf(key, value));
+        if (updated == root) {
+            return this;
+        }
+        return new PersistentIntMap<>(updated, get(key) == null ? size + 1 : size);
+    }
+
+    /**
+     * @return a map without {@code key}, or this map if the key was absent
+     */
+    public PersistentIntMap<V> remove(int key) {
+        Object updated = remove(root, 0, key);
+        if (updated == root) {
+            return this;
+        }
+        return new PersistentIntMap<>(updated == null ? (Node) EMPTY.root : (Node) updated, size - 1);
+    }
+
+    /**
+     * Visits the entries in trie order, which is not key order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryVisitor<? super V> visitor) {
+        forEach(root, (EntryVisitor<Object>) visitor);
+    }
+
+    private static Node put(Node node, int shift, Leaf leaf) {
+        int bit = 1 << ((leaf.key >>> shift) & MASK);
+        int index = node.index(bit);
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Node child) {
+            replacement = put(child, shift + BITS, leaf);
+        } else {
+            Leaf existing = (Leaf) slot;
+            if (existing.key == leaf.key) {
+                replacement = existing.value == leaf.value ? existing : leaf;
+            } else {
+                replacement = put(put(new Node(0, new Object[0]), shift + BITS, existing), shift + BITS, leaf);
+            }
+        }
+        if (replacement == slot) {
+            return node;
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    /**
+     * @return the updated node, {@code node} itself if the key is absent, a lone leaf that the parent should
+     * inline, or {@code null} if the node became empty
+     */
+    private static Object remove(Node node, int shift, int key) {
+        int bit = 1 << ((key >>> shift) & MASK);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = node.index(bit);
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Node child) {
+            replacement = remove(child, shift + BITS, key);
+            if (replacement == child) {
+                return node;
+            }
+        } else if (((Leaf) slot).key == key) {
+            replacement = null;
+        } else {
+            return node;
+        }
+
+        if (replacement != null) {
+            if (node.slots.length == 1 && replacement instanceof Leaf && shift > 0) {
+                return replacement;
+            }
+            Object[] slots = node.slots.clone();
+            slots[index] = replacement;
+            return new Node(node.bitmap, slots);
+        }
+        if (node.slots.length == 1) {
+            return null;
+        }
+        if (node.slots.length == 2 && shift > 0 && node.slots[1 - index] instanceof Leaf remaining) {
+            return remaining;
+        }
+        Object[] slots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, slots, 0, index);
+        System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+        return new Node(node.bitmap & ~bit, slots);
+    }
+
+    private static void forEach(Node node, EntryVisitor<Object> visitor) {
+        for (Object slot : node.slots) {
+            if (slot instanceof Node child) {
+                forEach(child, visitor);
+            } else {
+                Leaf leaf = (Leaf) slot;
+                visitor.visit(leaf.key, leaf.value);
+            }
+        }
+    }
+
+    private record Leaf(int key, Object value) {
+    }
+
+    private static final class Node {
+
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package clearsolutions.testassignment.service.store;
+
+/**
+ * Plain loops, written without data-dependent branches so the JIT can turn the comparison into a conditional move.
+ */
+final class ScalarColumnKernels implements ColumnKernels {
+
+    @Override
+    public void selectRange(int[] values, int length, int min, int max, long[] selection) {
+        selectRange(values, 0, length, min, max, selection);
+    }
+
+    /**
+     * Same as {@link #selectRange(int[], int, int, int, long[])} for the rows from {@code from}, which must be a
+     * multiple of 64.
+     */
+    static void selectRange(int[] values, int from, int length, int min, int max, long[] selection) {
+        if (min > max) {
+            for (int word = from >>> 6; word < (length + 63) >>> 6; word++) {
+                selection[word] = 0;
+            }
+            return;
+        }
+        // v - min <= max - min compared unsigned is min <= v <= max with one comparison
+        long span = Integer.toUnsignedLong(max - min);
+        for (int base = from; base < length; base += 64) {
+            int end = Math.min(64, length - base);
+            long bits = 0;
+            for (int bit = 0; bit < end; bit++) {
+                long hit = Integer.toUnsignedLong(values[base + bit] - min) <= span ? 1 : 0;
+                bits |= hit << bit;
+            }
+            selection[base >>> 6] = bits;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * In-heap user map whose every change publishes a new {@link PersistentIntMap} with a compare-and-set. Readers
+ * never lock, and {@link #forEach} walks one published version, so a scan neither blocks writers nor sees a
+ * half-applied batch. A remapping function may be applied more than once under contention and must not have
+ * side effects.
+ */
+public class SnapshotUserMap extends AbstractMap<Integer, User> {
+
+    private final AtomicReference<PersistentIntMap<User>> users = new AtomicReference<>(PersistentIntMap.empty());
+
+    /**
+     * @return the current version, which later writes leave untouched
+     */
+    public PersistentIntMap<User> snapshot() {
+        return users.get();
+    }
+
+    @Override
+    public User get(Object key) {
+        return key instanceof Integer id ? users.get().get(id) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public User put(Integer key, User value) {
+        Objects.requireNonNull(value);
+        while (true) {
+            PersistentIntMap<User> current = users.get();
+            if (users.compareAndSet(current, current.put(key, value))) {
+                return current.get(key);
+            }
+        }
+    }
+
+    /**
+     * Publishes the whole batch at once, so a scan sees either none or all of it.
+     */
+    @Override
+    public void putAll(Map<? extends Integer, ? extends User> batch) {
+        while (true) {
+            PersistentIntMap<User> current = users.get();
+            PersistentIntMap<User> updated = current;
+            for (Map.Entry<? extends Integer, ? extends User> entry : batch.entrySet()) {
+                updated = updated.put(entry.getKey(), Objects.requireNonNull(entry.getValue()));
+            }
+            if (users.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public User remove(Object key) {
+        if (!(key instanceof Integer id)) {
+            return null;
+        }
+        while (true) {
+            PersistentIntMap<User> current = users.get();
+            if (users.compareAndSet(current, current.remove(id))) {
+                return current.get(id);
+            }
+        }
+    }
+
+    @Override
+    public User computeIfPresent(Integer key, BiFunction<? super Integer, ? super User, ? extends User> remapping) {
+        while (true) {
+            PersistentIntMap<User> current = users.get();
+            User existing = current.get(key);
+            if (existing == null) {
+                return null;
+            }
+            User updated = remapping.apply(key, existing);
+            if (users.compareAndSet(current, updated == null ? current.remove(key) : current.put(key, updated))) {
+                return updated;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return users.get().size();
+    }
+
+    @Override
+    public void clear() {
+        users.set(PersistentIntMap.empty());
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Integer, ? super User> action) {
+        users.get().forEach(action::accept);
+    }
+
+    /**
+     * @return a copy of the current version
+     */
+    @Override
+    public Set<Map.Entry<Integer, User>> entrySet() {
+        Map<Integer, User> snapshot = new HashMap<>(size() * 4 / 3 + 1);
+        forEach(snapshot::put);
+        return snapshot.entrySet();
+    }
+}
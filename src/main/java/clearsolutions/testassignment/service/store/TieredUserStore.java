@@ -0,0 +1,555 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * User map with a bounded in-heap hot tier and a cold tier spilled to an append-only file. The hot tier is
+ * evicted in approximate least recently used order (CLOCK): a read only sets the user's reference bit, and when
+ * the tier overflows, users are taken from the eldest end, referenced ones get their bit cleared and a second
+ * chance at the young end, and the first unreferenced one is written to the file with only its offset staying
+ * on the heap. {@link #get} and {@link #computeIfPresent} promote cold users back to the hot tier, while
+ * {@link #forEach} streams both tiers without disturbing them.
+ * <p>
+ * Writers take the store monitor and, before releasing it, publish an immutable {@link Version}: a
+ * {@link PersistentIntMap} from id to either the {@link HotUser} or the packed file location of the cold one,
+ * together with the file segment those locations point into. Hot hits in {@link #get}, scans, {@link #size()}
+ * and {@link #containsKey} read the latest version without locking, so a scan sees the users of one point in
+ * time and never holds up a writer, and only cold hits take the monitor to promote. Rewritten and promoted
+ * records leave garbage behind in the file, which is compacted into a fresh segment once it outweighs the live
+ * records by the configured ratio.
+ */
+public class TieredUserStore extends AbstractMap<Integer, User> implements MeterBinder, AutoCloseable {
+
+    private static final long MIN_COMPACTION_GARBAGE = 1 << 20;
+    private static final int LENGTH_BITS = 24;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+
+    /**
+     * @param users   id to the {@link HotUser} or the {@link Long} location of the cold record
+     * @param segment the file the cold locations point into
+     */
+    private record Version(PersistentIntMap<Object> users, ColdSegment segment, int hotSize) {
+    }
+
+    /**
+     * Hot tier entry. The reference bit is set by lock-free readers and cleared by the evicting writer; a lost
+     * update only makes eviction slightly less accurate.
+     */
+    private static final class HotUser {
+
+        private final User user;
+        private volatile boolean referenced;
+
+        private HotUser(User user) {
+            this.user = user;
+        }
+
+        private User touch() {
+            if (!referenced) {
+                referenced = true;
+            }
+            return user;
+        }
+    }
+
+    private final Path directory;
+    private final int hotCapacity;
+    private final double compactionGarbageRatio;
+
+    /**
+     * The CLOCK queue, eldest first. Guarded by the store monitor.
+     */
+    private final LinkedHashMap<Integer, HotUser> hot = new LinkedHashMap<>();
+    private PersistentIntMap<Object> users = PersistentIntMap.empty();
+    private ColdSegment segment;
+    private long liveBytes;
+    private long garbageBytes;
+    private volatile Version version;
+
+    private final LongAdder hotHits = new LongAdder();
+    private final LongAdder coldHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder spills = new LongAdder();
+    private final AtomicLong compactions = new AtomicLong();
+
+    public TieredUserStore(Path directory, int hotCapacity, double compactionGarbageRatio) throws IOException {
+        if (hotCapacity < 1) {
+            throw new IllegalArgumentException("Hot tier capacity must be positive: " + hotCapacity);
+        }
+        this.directory = directory;
+        this.hotCapacity = hotCapacity;
+        this.compactionGarbageRatio = compactionGarbageRatio;
+        this.segment = ColdSegment.create(directory);
+        publish();
+    }
+
+    @Override
+    public User get(Object key) {
+        Object entry = key instanceof Integer id ? version.users().get(id) : null;
+        if (entry instanceof HotUser hotUser) {
+            hotHits.increment();
+            return hotUser.touch();
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        return getCold((Integer) key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer id && version.users().containsKey(id);
+    }
+
+    @Override
+    public synchronized User put(Integer key, User value) {
+        try {
+            User previous = store(key, value, true);
+            spillOverflow();
+            return previous;
+        } finally {
+            publish();
+        }
+    }
+
+    /**
+     * Publishes the whole batch at once, so a scan sees either none or all of it.
+     */
+    @Override
+    public synchronized void putAll(Map<? extends Integer, ? extends User> batch) {
+        try {
+            for (Map.Entry<? extends Integer, ? extends User> entry : batch.entrySet()) {
+                store(entry.getKey(), entry.getValue(), false);
+            }
+            spillOverflow();
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized User remove(Object key) {
+        if (!(key instanceof Integer id)) {
+            return null;
+        }
+        try {
+            Object entry = users.get(id);
+            users = users.remove(id);
+            hot.remove(id);
+            if (entry instanceof Long location) {
+                User removed = retire(location, true);
+                compactIfNeeded();
+                return removed;
+            }
+            return entry == null ? null : ((HotUser) entry).user;
+        } finally {
+            publish();
+        }
+    }
+
+    /**
+     * Promotes the user to the hot tier before applying the update, so the updated user is not written to the
+     * file only to be made garbage by the next update.
+     */
+    @Override
+    public synchronized User computeIfPresent(Integer key,
+                                              BiFunction<? super Integer, ? super User, ? extends User> remapping) {
+        User existing = get(key);
+        if (existing == null) {
+            return null;
+        }
+        try {
+            User updated = remapping.apply(key, existing);
+            if (updated == null) {
+                hot.remove(key);
+                users = users.remove(key);
+            } else {
+                putHot(key, updated);
+            }
+            return updated;
+        } finally {
+            publish();
+        }
+    }
+
+    @Override
+    public int size() {
+        return version.users().size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        try {
+            hot.clear();
+            users = PersistentIntMap.empty();
+            garbageBytes += liveBytes;
+            liveBytes = 0;
+            compactIfNeeded();
+        } finally {
+            publish();
+        }
+    }
+
+    /**
+     * Visits every user of the latest published version without promoting anyone.
+     */
+    @Override
+    public void forEach(BiConsumer<? super Integer, ? super User> action) {
+        forEach(UserFieldSet.ALL, action);
+    }
+
+    /**
+     * Like {@link #forEach(BiConsumer)}, but cold users are decoded with the birth date and the selected fields
+     * only. Hot users are passed as they are, cold users follow in file order.
+     */
+    public void forEach(UserFieldSet fields, BiConsumer<? super Integer, ? super User> action) {
+        Version snapshot = acquire();
+        try {
+            long[] offsets = new long[snapshot.users().size() - snapshot.hotSize()];
+            int[] coldCount = new int[1];
+            snapshot.users().forEach((id, entry) -> {
+                if (entry instanceof HotUser hotUser) {
+                    action.accept(id, hotUser.user);
+                } else {
+                    offsets[coldCount[0]++] = (Long) entry >>> LENGTH_BITS;
+                }
+            });
+            Arrays.sort(offsets);
+            snapshot.segment().scan(offsets,
+                    record -> action.accept(UserRecordCodec.id(record), UserRecordCodec.decode(record, fields)));
+        } finally {
+            snapshot.segment().release();
+        }
+    }
+
+    /**
+     * Looks up a batch of users in the latest published version without taking the store lock or promoting
+     * anyone. Hot users are passed as they are found, cold users are then read in file order and decoded with the
+     * birth date and the selected fields only.
+     *
+     * @param ids    distinct ids to look up
+     * @param action called for every id that is present
+     */
+    public void getAll(int[] ids, UserFieldSet fields, BiConsumer<? super Integer, ? super User> action) {
+        Version snapshot = acquire();
+        try {
+            long[] offsets = new long[ids.length];
+            int coldCount = 0;
+            for (int id : ids) {
+                Object entry = snapshot.users().get(id);
+                if (entry instanceof HotUser hotUser) {
+                    hotHits.increment();
+                    action.accept(id, hotUser.user);
+                } else if (entry != null) {
+                    coldHits.increment();
+                    offsets[coldCount++] = (Long) entry >>> LENGTH_BITS;
+                } else {
+                    misses.increment();
+                }
+            }
+            Arrays.sort(offsets, 0, coldCount);
+            for (int i = 0; i < coldCount; i++) {
+                ByteBuffer record = snapshot.segment().read(offsets[i]);
+                action.accept(UserRecordCodec.id(record), UserRecordCodec.decode(record, fields));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            snapshot.segment().release();
+        }
+    }
+
+    /**
+     * @return a copy of the latest published version, read the same way as {@link #forEach}
+     */
+    @Override
+    public Set<Map.Entry<Integer, User>> entrySet() {
+        Map<Integer, User> snapshot = new HashMap<>();
+        forEach(snapshot::put);
+        return snapshot.entrySet();
+    }
+
+    public int getHotSize() {
+        return version.hotSize();
+    }
+
+    public int getColdSize() {
+        Version current = version;
+        return current.users().size() - current.hotSize();
+    }
+
+    public synchronized long getFileBytes() {
+        return segment.size();
+    }
+
+    public long getHotHits() {
+        return hotHits.sum();
+    }
+
+    public long getColdHits() {
+        return coldHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPromotions() {
+        return promotions.sum();
+    }
+
+    public long getSpills() {
+        return spills.sum();
+    }
+
+    public long getCompactions() {
+        return compactions.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.store.size", this, TieredUserStore::getHotSize)
+                .tag("tier", "hot")
+                .description("Users held in the tier")
+                .register(registry);
+        Gauge.builder("user.store.size", this, TieredUserStore::getColdSize)
+                .tag("tier", "cold")
+                .description("Users held in the tier")
+                .register(registry);
+        Gauge.builder("user.store.file.bytes", this, TieredUserStore::getFileBytes)
+                .description("Size of the cold tier file, garbage included")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("user.store.reads", this, TieredUserStore::getHotHits)
+                .tag("result", "hot")
+                .register(registry);
+        FunctionCounter.builder("user.store.reads", this, TieredUserStore::getColdHits)
+                .tag("result", "cold")
+                .register(registry);
+        FunctionCounter.builder("user.store.reads", this, TieredUserStore::getMisses)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("user.store.promotions", this, TieredUserStore::getPromotions)
+                .register(registry);
+        FunctionCounter.builder("user.store.spills", this, TieredUserStore::getSpills)
+                .register(registry);
+        FunctionCounter.builder("user.store.compactions", this, TieredUserStore::getCompactions)
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void close() {
+        segment.release();
+    }
+
+    private void publish() {
+        version = new Version(users, segment, hot.size());
+    }
+
+    /**
+     * @return the latest version with its segment retained, to be released by the caller
+     * @throws IllegalStateException if the store is closed
+     */
+    private Version acquire() {
+        while (true) {
+            Version current = version;
+            if (current.segment().retain()) {
+                return current;
+            }
+            if (version == current) {
+                throw new IllegalStateException("User store is closed");
+            }
+        }
+    }
+
+    /**
+     * Rechecks a user the lock-free read found cold, another thread may have promoted or removed it since.
+     */
+    private synchronized User getCold(Integer id) {
+        Object entry = users.get(id);
+        if (entry instanceof HotUser hotUser) {
+            hotHits.increment();
+            return hotUser.touch();
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        coldHits.increment();
+        try {
+            return promote(id, (Long) entry);
+        } finally {
+            publish();
+        }
+    }
+
+    /**
+     * Puts the user in the hot tier and drops its cold copy, if any.
+     *
+     * @param decodePrevious whether to read a dropped cold copy back, for callers that return the previous value
+     */
+    private User store(Integer id, User user, boolean decodePrevious) {
+        Object previous = users.get(id);
+        putHot(id, Objects.requireNonNull(user));
+        if (previous instanceof Long location) {
+            return retire(location, decodePrevious);
+        }
+        return previous == null ? null : ((HotUser) previous).user;
+    }
+
+    /**
+     * Makes the user the youngest entry of the hot tier.
+     */
+    private void putHot(Integer id, User user) {
+        HotUser hotUser = new HotUser(user);
+        hot.remove(id);
+        hot.put(id, hotUser);
+        users = users.put(id, hotUser);
+    }
+
+    private User promote(Integer id, long location) {
+        User user = read(location);
+        retire(location, false);
+        putHot(id, user);
+        promotions.increment();
+        spillOverflow();
+        return user;
+    }
+
+    /**
+     * Accounts a cold record that is no longer referenced as garbage.
+     *
+     * @param decode whether to read the record back first
+     */
+    private User retire(long location, boolean decode) {
+        User user = decode ? read(location) : null;
+        long length = location & LENGTH_MASK;
+        liveBytes -= length;
+        garbageBytes += length;
+        return user;
+    }
+
+    private User read(long location) {
+        try {
+            return UserRecordCodec.decode(segment.read(location >>> LENGTH_BITS));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void spillOverflow() {
+        if (hot.size() <= hotCapacity) {
+            return;
+        }
+        try {
+            while (hot.size() > hotCapacity) {
+                Map.Entry<Integer, HotUser> eldest = hot.entrySet().iterator().next();
+                Integer id = eldest.getKey();
+                HotUser hotUser = eldest.getValue();
+                hot.remove(id);
+                if (hotUser.referenced) {
+                    hotUser.referenced = false;
+                    hot.put(id, hotUser);
+                    continue;
+                }
+                users = users.put(id, append(segment, id, hotUser.user));
+                spills.increment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        compactIfNeeded();
+    }
+
+    private long append(ColdSegment target, int id, User user) throws IOException {
+        ByteBuffer record = UserRecordCodec.encode(id, user);
+        long length = record.remaining();
+        if (length > LENGTH_MASK) {
+            throw new IllegalArgumentException("User " + id + " is too large for the cold tier: " + length);
+        }
+        long offset = target.append(record);
+        liveBytes += length;
+        return offset << LENGTH_BITS | length;
+    }
+
+    /**
+     * Copies the live cold records into a new segment and publishes it. Scans still reading the old segment keep
+     * it open until they release it.
+     */
+    private void compactIfNeeded() {
+        if (garbageBytes < MIN_COMPACTION_GARBAGE || garbageBytes < liveBytes * compactionGarbageRatio) {
+            return;
+        }
+        long[] offsets = new long[users.size() - hot.size()];
+        int[] coldCount = new int[1];
+        users.forEach((id, entry) -> {
+            if (entry instanceof Long location) {
+                offsets[coldCount[0]++] = location >>> LENGTH_BITS;
+            }
+        });
+        Arrays.sort(offsets);
+
+        Relocation relocation;
+        try {
+            relocation = new Relocation(ColdSegment.create(directory), users);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            segment.scan(offsets, relocation);
+        } catch (RuntimeException e) {
+            relocation.target.release();
+            throw e;
+        }
+        ColdSegment previous = segment;
+        users = relocation.users;
+        segment = relocation.target;
+        garbageBytes = 0;
+        publish();
+        previous.release();
+        compactions.incrementAndGet();
+    }
+
+    /**
+     * Appends scanned records to a new segment and points their index entries at the copies.
+     */
+    private static final class Relocation implements Consumer<ByteBuffer> {
+
+        private final ColdSegment target;
+        private PersistentIntMap<Object> users;
+
+        private Relocation(ColdSegment target, PersistentIntMap<Object> users) {
+            this.target = target;
+            this.users = users;
+        }
+
+        @Override
+        public void accept(ByteBuffer record) {
+            ByteBuffer copy = record.duplicate().position(record.position() - UserRecordCodec.LENGTH_PREFIX);
+            long length = copy.remaining();
+            try {
+                users = users.put(UserRecordCodec.id(record), target.append(copy) << LENGTH_BITS | length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserField;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.capacity.UserSizeEstimator;
+import clearsolutions.testassignment.util.EpochDays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Columnar shadow of the user store for ad-hoc filters: birth dates as epoch days, email domains as dictionary ids
+ * and a presence bitmap per field, all indexed by user id. Ids are handed out sequentially, so the columns stay
+ * dense. A filter evaluates whole columns into a selection bitmap instead of visiting every user object. The
+ * estimated size of every user is kept as well, so the store usage is known without walking the store.
+ * <p>
+ * Writers hand in the user they stored together with a {@link #nextStamp() stamp} drawn in step with the store
+ * write, and a row only takes a write stamped later than the one it holds, so racing writers of one user cannot
+ * leave its row stale. Rows are updated under one of a fixed set of locks, chosen by the bitmap word the row
+ * lives in, so writers of different rows rarely wait for each other; only growing the columns takes all of them.
+ * Rows are published with a volatile write, so a filter sees every write that completed before it began. Writes
+ * racing with a filter may or may not be seen, each row on its own.
+ */
+public class UserColumns {
+
+    private static final Logger log = LoggerFactory.getLogger(UserColumns.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOCK_STRIPES = 64;
+    private static final int NO_DOMAIN = -1;
+    private static final UserField[] FIELDS = UserField.values();
+
+    private final ColumnKernels kernels;
+    private final Map<String, Integer> domainIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextDomainId = new AtomicInteger();
+    private final AtomicLong stamps = new AtomicLong();
+    private final ReentrantLock[] rowLocks = new ReentrantLock[LOCK_STRIPES];
+
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private final AtomicInteger rows = new AtomicInteger();
+    private final LongAdder users = new LongAdder();
+    private final LongAdder estimatedBytes = new LongAdder();
+
+    /**
+     * @param vectorEnabled whether to evaluate filters with the Vector API when the JVM provides it
+     */
+    public UserColumns(boolean vectorEnabled) {
+        this(ColumnKernels.load(vectorEnabled));
+        log.info("User column filters run on {}", kernels.getClass().getSimpleName());
+    }
+
+    UserColumns(ColumnKernels kernels) {
+        this.kernels = kernels;
+        for (int i = 0; i < rowLocks.length; i++) {
+            rowLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return a stamp for a write about to be made to the store. Draw it before inserting a new user, inside the
+     * update function for an existing one and after removing one, so stamps of one user follow the store order.
+     */
+    public long nextStamp() {
+        return stamps.incrementAndGet();
+    }
+
+    /**
+     * Rewrites the row of {@code id} with {@code user}, or clears it if {@code user} is {@code null}, unless the
+     * row already holds a write with a later stamp.
+     */
+    public void update(int id, User user, long stamp) {
+        int domainId = user == null ? NO_DOMAIN : domainId(user.getEmail());
+        int size = user == null ? 0 : UserSizeEstimator.estimate(user);
+        ReentrantLock lock = rowLocks[(id >>> 6) & (LOCK_STRIPES - 1)];
+        while (true) {
+            lock.lock();
+            try {
+                // growing takes every row lock, so the columns cannot be replaced while this one is held
+                Columns target = columns;
+                if (id < target.capacity()) {
+                    apply(target, id, user, domainId, size, stamp);
+                    break;
+                }
+            } finally {
+                lock.unlock();
+            }
+            grow(id + 1);
+        }
+        // the volatile write publishes the row written above even when the row count does not change
+        rows.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * {@link #update Updates} the rows of all {@code users} with one stamp.
+     */
+    public void update(Map<Integer, User> users, long stamp) {
+        users.forEach((id, user) -> update(id, user, stamp));
+    }
+
+    public void clear() {
+        lockAll();
+        try {
+            columns.clearAll();
+            domainIds.clear();
+            nextDomainId.set(0);
+            users.reset();
+            estimatedBytes.reset();
+            rows.set(0);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * @return a bitmap with bit {@code id % 64} of word {@code id / 64} set for every user matching the filter
+     */
+    public long[] select(UserFilter filter) {
+        int rowCount = rows.get();
+        Columns snapshot = columns;
+        int words = (rowCount + 63) >>> 6;
+        long[] selection = Arrays.copyOf(snapshot.live, words);
+        long[] hits = null;
+        if (filter.bornFrom() != null || filter.bornTo() != null) {
+            int min = filter.bornFrom() == null ? EpochDays.NULL_DAY + 1 : epochDay(filter.bornFrom());
+            int max = filter.bornTo() == null ? Integer.MAX_VALUE : epochDay(filter.bornTo());
+            hits = new long[words];
+            kernels.selectRange(snapshot.birthDays, rowCount, min, max, hits);
+            and(selection, hits);
+        }
+        if (filter.emailDomain() != null) {
+            Integer domainId = domainIds.get(filter.emailDomain().toLowerCase(Locale.ROOT));
+            if (domainId == null) {
+                return new long[words];
+            }
+            hits = hits == null ? new long[words] : hits;
+            kernels.selectRange(snapshot.emailDomains, rowCount, domainId, domainId, hits);
+            and(selection, hits);
+        }
+        if (filter.present() != null) {
+            for (UserField field : filter.present().getFields()) {
+                and(selection, snapshot.present[field.ordinal()]);
+            }
+        }
+        if (filter.absent() != null) {
+            for (UserField field : filter.absent().getFields()) {
+                andNot(selection, snapshot.present[field.ordinal()]);
+            }
+        }
+        if ((rowCount & 63) != 0) {
+            // a writer may already have set bits for rows it has not published yet
+            selection[words - 1] &= (1L << rowCount) - 1;
+        }
+        return selection;
+    }
+
+    /**
+     * @return the ids selected in {@code selection}, in ascending order
+     */
+    public static int[] selectedIds(long[] selection) {
+        int count = 0;
+        for (long word : selection) {
+            count += Long.bitCount(word);
+        }
+        int[] ids = new int[count];
+        int next = 0;
+        for (int word = 0; word < selection.length; word++) {
+            for (long bits = selection[word]; bits != 0; bits &= bits - 1) {
+                ids[next++] = word << 6 | Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return ids;
+    }
+
+    public int getRows() {
+        return rows.get();
+    }
+
+    /**
+     * @return the number of users stored
+     */
+    public int getUsers() {
+        return users.intValue();
+    }
+
+    /**
+     * @return the estimated data size of the users stored, counting spilled users as if they were loaded, see
+     * {@link UserSizeEstimator}
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.sum();
+    }
+
+    public int getEmailDomains() {
+        return domainIds.size();
+    }
+
+    private void apply(Columns target, int id, User user, int domainId, int size, long stamp) {
+        if (stamp < target.stamps[id]) {
+            return;
+        }
+        int userDelta = target.isLive(id) ? -1 : 0;
+        long byteDelta = -target.sizes[id];
+        if (user == null) {
+            target.clear(id, stamp);
+        } else {
+            target.set(id, user, domainId, size, stamp);
+            userDelta++;
+            byteDelta += size;
+        }
+        users.add(userDelta);
+        estimatedBytes.add(byteDelta);
+    }
+
+    private void grow(int minCapacity) {
+        lockAll();
+        try {
+            if (minCapacity > columns.capacity()) {
+                columns = columns.copy(Math.max((minCapacity + 63) & ~63, columns.capacity() * 2));
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : rowLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (ReentrantLock lock : rowLocks) {
+            lock.unlock();
+        }
+    }
+
+    private int domainId(String email) {
+        int at = email == null ? -1 : email.lastIndexOf('@');
+        if (at < 0) {
+            return NO_DOMAIN;
+        }
+        String domain = email.substring(at + 1).toLowerCase(Locale.ROOT);
+        return domainIds.computeIfAbsent(domain, newDomain -> nextDomainId.getAndIncrement());
+    }
+
+    private static int epochDay(LocalDate date) {
+        return (int) Math.max(EpochDays.NULL_DAY + 1, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    private static void and(long[] selection, long[] bitmap) {
+        for (int i = 0; i < selection.length; i++) {
+            selection[i] &= bitmap[i];
+        }
+    }
+
+    private static void andNot(long[] selection, long[] bitmap) {
+        for (int i = 0; i < selection.length; i++) {
+            selection[i] &= ~bitmap[i];
+        }
+    }
+
+    private static boolean isPresent(User user, UserField field) {
+        return switch (field) {
+            case EMAIL -> user.getEmail() != null;
+            case FIRST_NAME -> user.getFirstName() != null;
+            case LAST_NAME -> user.getLastName() != null;
+            case BIRTH_DATE -> user.getBirthDate() != null;
+            case ADDRESS -> user.getAddress() != null;
+            case PHONE_NUMBER -> user.getPhoneNumber() != null;
+        };
+    }
+
+    /**
+     * Column arrays of one capacity. Rows are updated in place; growing copies them into a new instance.
+     */
+    private static final class Columns {
+
+        private final int[] birthDays;
+        private final int[] emailDomains;
+        private final int[] sizes;
+        private final long[] stamps;
+        private final long[] live;
+        private final long[][] present;
+
+        private Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new long[capacity],
+                    new long[capacity >>> 6], new long[FIELDS.length][capacity >>> 6]);
+        }
+
+        private Columns(int[] birthDays, int[] emailDomains, int[] sizes, long[] stamps, long[] live,
+                        long[][] present) {
+            this.birthDays = birthDays;
+            this.emailDomains = emailDomains;
+            this.sizes = sizes;
+            this.stamps = stamps;
+            this.live = live;
+            this.present = present;
+        }
+
+        int capacity() {
+            return birthDays.length;
+        }
+
+        /**
+         * @param capacity a multiple of 64
+         */
+        Columns copy(int capacity) {
+            int words = capacity >>> 6;
+            long[][] presentCopy = new long[FIELDS.length][];
+            for (int i = 0; i < FIELDS.length; i++) {
+                presentCopy[i] = Arrays.copyOf(present[i], words);
+            }
+            return new Columns(Arrays.copyOf(birthDays, capacity), Arrays.copyOf(emailDomains, capacity),
+                    Arrays.copyOf(sizes, capacity), Arrays.copyOf(stamps, capacity), Arrays.copyOf(live, words),
+                    presentCopy);
+        }
+
+        boolean isLive(int id) {
+            return (live[id >>> 6] & 1L << id) != 0;
+        }
+
+        void set(int id, User user, int domainId, int size, long stamp) {
+            birthDays[id] = EpochDays.fromDate(user.getBirthDate());
+            emailDomains[id] = domainId;
+            sizes[id] = size;
+            stamps[id] = stamp;
+            long bit = 1L << id;
+            live[id >>> 6] |= bit;
+            for (UserField field : FIELDS) {
+                if (isPresent(user, field)) {
+                    present[field.ordinal()][id >>> 6] |= bit;
+                } else {
+                    present[field.ordinal()][id >>> 6] &= ~bit;
+                }
+            }
+        }
+
+        void clear(int id, long stamp) {
+            sizes[id] = 0;
+            stamps[id] = stamp;
+            long bit = ~(1L << id);
+            live[id >>> 6] &= bit;
+            for (long[] bitmap : present) {
+                bitmap[id >>> 6] &= bit;
+            }
+        }
+
+        void clearAll() {
+            Arrays.fill(sizes, 0);
+            Arrays.fill(stamps, 0);
+            Arrays.fill(live, 0);
+            for (long[] bitmap : present) {
+                Arrays.fill(bitmap, 0);
+            }
+        }
+    }
+}
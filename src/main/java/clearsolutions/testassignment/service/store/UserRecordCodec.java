@@ -0,0 +1,120 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserField;
+import clearsolutions.testassignment.model.UserFieldSet;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Binary layout of a user in the cold tier file:
+ * <pre>
+ * int32  length of the rest of the record
+ * int32  id
+ * int64  birth date in epoch millis, Long.MIN_VALUE for null
+ * int32  byte length of email, firstName, lastName, address and phoneNumber, -1 for null
+ * bytes  UTF-8 data of those strings, in the same order
+ * </pre>
+ * The length table lets a reader locate any string without decoding the ones before it.
+ */
+final class UserRecordCodec {
+
+    static final int LENGTH_PREFIX = Integer.BYTES;
+
+    private static final UserField[] STRING_FIELDS = {
+            UserField.EMAIL, UserField.FIRST_NAME, UserField.LAST_NAME, UserField.ADDRESS, UserField.PHONE_NUMBER
+    };
+    private static final int HEADER = Integer.BYTES + Long.BYTES + STRING_FIELDS.length * Integer.BYTES;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    private UserRecordCodec() {
+    }
+
+    static ByteBuffer encode(int id, User user) {
+        byte[][] strings = {
+                utf8(user.getEmail()), utf8(user.getFirstName()), utf8(user.getLastName()),
+                utf8(user.getAddress()), utf8(user.getPhoneNumber())
+        };
+        int length = HEADER;
+        for (byte[] string : strings) {
+            length += string == null ? 0 : string.length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(LENGTH_PREFIX + length);
+        record.putInt(length);
+        record.putInt(id);
+        record.putLong(user.getBirthDate() == null ? NULL_DATE : user.getBirthDate().getTime());
+        for (byte[] string : strings) {
+            record.putInt(string == null ? NULL_STRING : string.length);
+        }
+        for (byte[] string : strings) {
+            if (string != null) {
+                record.put(string);
+            }
+        }
+        return record.flip();
+    }
+
+    /**
+     * @param record positioned at the id, just after the length prefix
+     */
+    static int id(ByteBuffer record) {
+        return record.getInt(record.position());
+    }
+
+    /**
+     * @param record positioned at the id, just after the length prefix
+     */
+    static User decode(ByteBuffer record) {
+        return decode(record, UserFieldSet.ALL);
+    }
+
+    /**
+     * Decodes the birth date and the selected strings only; the other strings are skipped using the length
+     * table and stay {@code null}.
+     *
+     * @param record positioned at the id, just after the length prefix
+     */
+    static User decode(ByteBuffer record, UserFieldSet fields) {
+        int base = record.position();
+        long birthDate = record.getLong(base + Integer.BYTES);
+        int lengths = base + Integer.BYTES + Long.BYTES;
+        int data = base + HEADER;
+        User user = new User();
+        user.setBirthDate(birthDate == NULL_DATE ? null : new Date(birthDate));
+        for (int i = 0; i < STRING_FIELDS.length; i++) {
+            int length = record.getInt(lengths + i * Integer.BYTES);
+            if (length == NULL_STRING) {
+                continue;
+            }
+            if (fields.contains(STRING_FIELDS[i])) {
+                String value = string(record, data, length);
+                switch (STRING_FIELDS[i]) {
+                    case EMAIL -> user.setEmail(value);
+                    case FIRST_NAME -> user.setFirstName(value);
+                    case LAST_NAME -> user.setLastName(value);
+                    case ADDRESS -> user.setAddress(value);
+                    case PHONE_NUMBER -> user.setPhoneNumber(value);
+                    default -> throw new IllegalStateException("Not a string field: " + STRING_FIELDS[i]);
+                }
+            }
+            data += length;
+        }
+        return user;
+    }
+
+    private static String string(ByteBuffer record, int offset, int length) {
+        if (record.hasArray()) {
+            return new String(record.array(), record.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        record.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
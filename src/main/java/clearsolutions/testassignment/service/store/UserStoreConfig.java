@@ -0,0 +1,34 @@
+package clearsolutions.testassignment.service.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class UserStoreConfig {
+
+    @Value("${user.store.dir}")
+    private Path directory;
+
+    @Value("${user.store.hot-capacity}")
+    private int hotCapacity;
+
+    @Value("${user.store.compaction-garbage-ratio}")
+    private double compactionGarbageRatio;
+
+    @Value("${user.columns.vector-enabled}")
+    private boolean vectorEnabled;
+
+    @Bean(destroyMethod = "close")
+    public TieredUserStore tieredUserStore() throws IOException {
+        return new TieredUserStore(directory, hotCapacity, compactionGarbageRatio);
+    }
+
+    @Bean
+    public UserColumns userColumns() {
+        return new UserColumns(vectorEnabled);
+    }
+}
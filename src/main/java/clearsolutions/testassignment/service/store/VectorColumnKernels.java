@@ -0,0 +1,33 @@
+package clearsolutions.testassignment.service.store;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on the incubating Vector API, compared {@link IntVector#SPECIES_PREFERRED widest available} lanes at a
+ * time. Only loaded through {@link ColumnKernels#load}, so the application still starts on JVMs without the
+ * module.
+ */
+final class VectorColumnKernels implements ColumnKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public void selectRange(int[] values, int length, int min, int max, long[] selection) {
+        int vectorized = length & ~63;
+        for (int base = 0; base < vectorized; base += 64) {
+            long bits = 0;
+            for (int lane = 0; lane < 64; lane += LANES) {
+                IntVector vector = IntVector.fromArray(SPECIES, values, base + lane);
+                VectorMask<Integer> hits = vector.compare(VectorOperators.GE, min)
+                        .and(vector.compare(VectorOperators.LE, max));
+                bits |= hits.toLong() << lane;
+            }
+            selection[base >>> 6] = bits;
+        }
+        ScalarColumnKernels.selectRange(values, vectorized, length, min, max, selection);
+    }
+}
@@ -0,0 +1,34 @@
+package clearsolutions.testassignment.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Wall clock in the system default time zone with second precision. Callers within the same second share one
+ * {@link LocalDateTime} instance, so anything derived from it (such as a formatted timestamp) can be cached by
+ * identity.
+ */
+public final class CachedClock {
+
+    private static volatile Tick tick = new Tick(Long.MIN_VALUE, null);
+
+    private CachedClock() {
+    }
+
+    public static LocalDateTime now() {
+        long epochSecond = Math.floorDiv(System.currentTimeMillis(), 1000);
+        Tick current = tick;
+        if (current.epochSecond != epochSecond) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0,
+                    zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)));
+            current = new Tick(epochSecond, dateTime);
+            tick = current;
+        }
+        return current.dateTime;
+    }
+
+    private record Tick(long epochSecond, LocalDateTime dateTime) {
+    }
+}
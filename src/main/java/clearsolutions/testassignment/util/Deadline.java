@@ -0,0 +1,136 @@
+package clearsolutions.testassignment.util;
+
+import clearsolutions.testassignment.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Point in time by which a request must be answered. A deadline is attached to the thread serving the request,
+ * and long-running loops poll {@link #current()} so work the client will not wait for stops early. A deadline
+ * can also be cancelled before it expires.
+ */
+public final class Deadline {
+
+    /**
+     * Never expires and cannot be cancelled.
+     */
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE, false);
+
+    // System.nanoTime() differences only compare correctly below 2^63 nanoseconds
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 2;
+    private static final Duration MAX_TIMEOUT = Duration.ofNanos(MAX_TIMEOUT_NANOS);
+
+    private static final ThreadLocal<Deadline> CURRENT = ThreadLocal.withInitial(() -> NONE);
+
+    private volatile long expiresAtNanos;
+    private volatile boolean bounded;
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * @param timeout saturated at about 146 years, so any duration is accepted
+     */
+    public static Deadline after(Duration timeout) {
+        long nanos = timeout.compareTo(MAX_TIMEOUT) > 0 ? MAX_TIMEOUT_NANOS : timeout.toNanos();
+        return new Deadline(System.nanoTime() + nanos, true);
+    }
+
+    /**
+     * Deadline for work done on behalf of several callers, starting out as a copy of {@code first}'s. It is not
+     * cancelled with any caller's deadline and lasts as long as the most patient caller that
+     * {@link #extendTo extended} it.
+     */
+    public static Deadline sharedBy(Deadline first) {
+        return new Deadline(first.expiresAtNanos, first.bounded);
+    }
+
+    /**
+     * @return the deadline attached to this thread, {@link #NONE} if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this the {@link #current()} deadline until the returned scope is closed.
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> CURRENT.set(previous);
+    }
+
+    /**
+     * Pushes this deadline out to {@code other}'s, if that is later. Only meant for deadlines created with
+     * {@link #sharedBy}.
+     */
+    public synchronized void extendTo(Deadline other) {
+        if (!bounded) {
+            return;
+        }
+        if (!other.bounded) {
+            bounded = false;
+        } else if (other.expiresAtNanos - expiresAtNanos > 0) {
+            expiresAtNanos = other.expiresAtNanos;
+        }
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public void cancel() {
+        if (bounded) {
+            cancelled = true;
+        }
+    }
+
+    public boolean isExpired() {
+        return bounded && (cancelled || System.nanoTime() - expiresAtNanos >= 0);
+    }
+
+    public long remainingNanos() {
+        return bounded ? Math.max(0, expiresAtNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline expired or was cancelled
+     */
+    public void check() {
+        if (isExpired()) {
+            throw DeadlineExceededException.INSTANCE;
+        }
+    }
+
+    /**
+     * Waits for {@code future} no longer than this deadline allows.
+     *
+     * @throws DeadlineExceededException if the deadline passes first
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return bounded ? future.get(remainingNanos(), TimeUnit.NANOSECONDS) : future.get();
+        } catch (TimeoutException e) {
+            throw DeadlineExceededException.INSTANCE;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw DeadlineExceededException.INSTANCE;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,130 @@
+package clearsolutions.testassignment.util;
+
+import java.util.Date;
+
+/**
+ * Conversions between {@link Date} birth dates and UTC epoch days, plus an allocation-free {@code yyyy-MM-dd} codec.
+ * Dates are handled in the proleptic ISO calendar, the same as {@link java.time.LocalDate}.
+ */
+public final class EpochDays {
+
+    public static final int NULL_DAY = Integer.MIN_VALUE;
+
+    public static final int FORMATTED_LENGTH = 10;
+
+    /**
+     * 1582-10-15, the first day of the Gregorian calendar. {@link java.util.GregorianCalendar} based formatters use
+     * the Julian calendar before it, so their output only matches this class from this day on.
+     */
+    public static final int GREGORIAN_CUTOVER_DAY = -141_427;
+
+    /**
+     * 9999-12-31, the last day that formats with a four digit year.
+     */
+    public static final int LAST_FOUR_DIGIT_YEAR_DAY = 2_932_896;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final int DAYS_0000_TO_1970 = 719_468;
+
+    private EpochDays() {
+    }
+
+    public static int fromDate(Date date) {
+        return date == null ? NULL_DAY : (int) Math.floorDiv(date.getTime(), MILLIS_PER_DAY);
+    }
+
+    public static Date toDate(int epochDay) {
+        return epochDay == NULL_DAY ? null : new Date(epochDay * MILLIS_PER_DAY);
+    }
+
+    /**
+     * Writes {@code epochDay} as {@code yyyy-MM-dd} into {@code buffer} starting at {@code offset}.
+     * Only years 0..9999 are supported.
+     */
+    public static void format(int epochDay, char[] buffer, int offset) {
+        long z = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        if (year < 0 || year > 9999) {
+            throw new IllegalArgumentException("Year out of range: " + year);
+        }
+        buffer[offset] = (char) ('0' + year / 1000);
+        buffer[offset + 1] = (char) ('0' + year / 100 % 10);
+        buffer[offset + 2] = (char) ('0' + year / 10 % 10);
+        buffer[offset + 3] = (char) ('0' + year % 10);
+        buffer[offset + 4] = '-';
+        buffer[offset + 5] = (char) ('0' + month / 10);
+        buffer[offset + 6] = (char) ('0' + month % 10);
+        buffer[offset + 7] = '-';
+        buffer[offset + 8] = (char) ('0' + day / 10);
+        buffer[offset + 9] = (char) ('0' + day % 10);
+    }
+
+    public static String format(int epochDay) {
+        char[] buffer = new char[FORMATTED_LENGTH];
+        format(epochDay, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * Parses a strict {@code yyyy-MM-dd} value starting at {@code offset}.
+     *
+     * @throws IllegalArgumentException if the text is not a valid calendar date
+     */
+    public static int parse(CharSequence text, int offset) {
+        if (text.length() - offset < FORMATTED_LENGTH
+                || text.charAt(offset + 4) != '-' || text.charAt(offset + 7) != '-') {
+            throw new IllegalArgumentException("Expected yyyy-MM-dd but got: " + text);
+        }
+        int year = digits(text, offset, 4);
+        int month = digits(text, offset + 5, 2);
+        int day = digits(text, offset + 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        return of(year, month, day);
+    }
+
+    public static int parse(CharSequence text) {
+        if (text.length() != FORMATTED_LENGTH) {
+            throw new IllegalArgumentException("Expected yyyy-MM-dd but got: " + text);
+        }
+        return parse(text, 0);
+    }
+
+    public static int of(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (int) (era * 146_097 + dayOfEra - DAYS_0000_TO_1970);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Expected yyyy-MM-dd but got: " + text);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+package clearsolutions.testassignment.util;
+
+import clearsolutions.testassignment.exception.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls with equal keys into one execution. The first caller runs the action, callers
+ * arriving while it runs wait for and share its result or failure, each no longer than its own
+ * {@link Deadline}. Nothing is remembered once the action ends, so a caller may be handed a result computed from
+ * state read shortly before its own call began.
+ * <p>
+ * The action does not run under the deadline of the caller that happens to run it: it gets a
+ * {@link Deadline#sharedBy shared} deadline that every joining caller extends to its own, so it is only given up
+ * once no caller is left to wait for it. A caller whose own deadline has passed still fails when the action ends,
+ * and a caller handed a {@link DeadlineExceededException} it did not earn itself tries again.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public V execute(K key, Supplier<V> action) {
+        Deadline deadline = Deadline.current();
+        while (true) {
+            Flight<V> flight = new Flight<>(Deadline.sharedBy(deadline));
+            Flight<V> existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, action, deadline);
+            }
+
+            existing.deadline.extendTo(deadline);
+            coalesced.increment();
+            try {
+                return deadline.await(existing.result);
+            } catch (DeadlineExceededException e) {
+                if (deadline.isExpired()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> action, Deadline deadline) {
+        executions.increment();
+        V value;
+        try (Deadline.Scope ignored = flight.deadline.attach()) {
+            value = action.get();
+            flight.result.complete(value);
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+        deadline.check();
+        return value;
+    }
+
+    /**
+     * @return the number of calls that ran their action
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * @return the number of calls that shared the result of a call already in flight
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    private record Flight<V>(Deadline deadline, CompletableFuture<V> result) {
+
+        Flight(Deadline deadline) {
+            this(deadline, new CompletableFuture<>());
+        }
+    }
+}
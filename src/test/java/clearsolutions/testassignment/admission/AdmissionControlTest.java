@@ -0,0 +1,120 @@
+package clearsolutions.testassignment.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static AdmissionControl admissionControl(int globalLimit, int endpointLimit, Duration targetLatency) {
+        return new AdmissionControl(new AdaptiveLimiter("global", globalLimit, 1, 100, 0.5),
+                endpoint -> new AdaptiveLimiter(endpoint.getKey(), endpointLimit, 1, 100, 0.5),
+                endpoint -> targetLatency);
+    }
+
+    @Test
+    void testResolveEndpoint() {
+        assertEquals(AdmissionEndpoint.GET_USER, AdmissionEndpoint.resolve("GET", "/api/user/42"));
+        assertEquals(AdmissionEndpoint.ALL, AdmissionEndpoint.resolve("GET", "/api/user/all"));
+        assertEquals(AdmissionEndpoint.SEARCH, AdmissionEndpoint.resolve("GET", "/api/user/searchByBirthDate"));
+        assertEquals(AdmissionEndpoint.SEARCH, AdmissionEndpoint.resolve("GET", "/api/user/filter"));
+        assertEquals(AdmissionEndpoint.WRITE, AdmissionEndpoint.resolve("POST", "/api/user"));
+        assertEquals(AdmissionEndpoint.GET_USERS, AdmissionEndpoint.resolve("POST", "/api/user/batch"));
+        assertEquals(AdmissionEndpoint.WRITE, AdmissionEndpoint.resolve("DELETE", "/api/user/delete/1"));
+        assertEquals(AdmissionEndpoint.BULK, AdmissionEndpoint.resolve("POST", "/api/user/export"));
+        assertEquals(AdmissionEndpoint.OTHER, AdmissionEndpoint.resolve("GET", "/api/user/import/import-1"));
+        assertEquals(AdmissionEndpoint.OTHER, AdmissionEndpoint.resolve("POST", "/api/user/report/all"));
+        assertEquals(AdmissionEndpoint.BULK, AdmissionEndpoint.resolve("GET", "/api/user/report/report-1/result"));
+        assertNull(AdmissionEndpoint.resolve("GET", "/actuator/metrics"));
+        assertNull(AdmissionEndpoint.resolve("GET", "/api/users"));
+    }
+
+    @Test
+    void testEndpointLimitRejectsWithEndpointReason() {
+        AdmissionControl admissionControl = admissionControl(100, 2, Duration.ofMinutes(1));
+
+        assertTrue(admissionControl.tryAcquire(AdmissionEndpoint.ALL).isAdmitted());
+        assertTrue(admissionControl.tryAcquire(AdmissionEndpoint.ALL).isAdmitted());
+        AdmissionControl.Permit rejected = admissionControl.tryAcquire(AdmissionEndpoint.ALL);
+
+        assertFalse(rejected.isAdmitted());
+        assertEquals(AdmissionControl.Rejection.ENDPOINT_LIMIT, rejected.getRejection());
+        assertTrue(admissionControl.tryAcquire(AdmissionEndpoint.GET_USER).isAdmitted());
+    }
+
+    @Test
+    void testSheddableRequestsAreShedBeforeCriticalOnes() {
+        AdmissionControl admissionControl = admissionControl(10, 100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(admissionControl.tryAcquire(AdmissionEndpoint.GET_USER).isAdmitted());
+        }
+        AdmissionControl.Permit scan = admissionControl.tryAcquire(AdmissionEndpoint.SEARCH);
+
+        assertEquals(AdmissionControl.Rejection.OVERLOADED, scan.getRejection());
+        assertTrue(admissionControl.tryAcquire(AdmissionEndpoint.GET_USER).isAdmitted());
+        assertEquals(0, admissionControl.getLimiter(AdmissionEndpoint.SEARCH).getInFlight());
+        assertEquals(0, admissionControl.getLimiter(AdmissionEndpoint.SEARCH).getAccepted());
+        assertEquals(0, admissionControl.getLimiter(AdmissionEndpoint.SEARCH).getRejected());
+        assertEquals(1, admissionControl.getGlobalLimiter().getRejected());
+    }
+
+    @Test
+    void testSlowRequestsShrinkTheLimit() throws InterruptedException {
+        AdmissionControl admissionControl = admissionControl(100, 20, Duration.ofMillis(1));
+
+        AdmissionControl.Permit permit = admissionControl.tryAcquire(AdmissionEndpoint.SEARCH);
+        Thread.sleep(5);
+        permit.release();
+        permit.release();
+
+        assertEquals(10, admissionControl.getLimiter(AdmissionEndpoint.SEARCH).getLimit());
+        assertEquals(50, admissionControl.getGlobalLimiter().getLimit());
+        assertEquals(0, admissionControl.getLimiter(AdmissionEndpoint.SEARCH).getInFlight());
+    }
+
+    @Test
+    void testBurstOfSlowRequestsBacksOffOnce() throws InterruptedException {
+        AdmissionControl admissionControl = admissionControl(100, 20, Duration.ofMillis(1));
+        AdaptiveLimiter limiter = admissionControl.getLimiter(AdmissionEndpoint.SEARCH);
+
+        List<AdmissionControl.Permit> burst = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            burst.add(admissionControl.tryAcquire(AdmissionEndpoint.SEARCH));
+        }
+        Thread.sleep(5);
+        burst.forEach(AdmissionControl.Permit::release);
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(50, admissionControl.getGlobalLimiter().getLimit());
+
+        AdmissionControl.Permit later = admissionControl.tryAcquire(AdmissionEndpoint.SEARCH);
+        Thread.sleep(5);
+        later.release();
+
+        assertEquals(5, limiter.getLimit());
+        assertEquals(25, admissionControl.getGlobalLimiter().getLimit());
+    }
+
+    @Test
+    void testBusyFastRequestsGrowTheLimit() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 100, 0.5);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(1.0));
+            assertTrue(limiter.tryAcquire(1.0));
+            limiter.release(System.nanoTime(), false);
+            limiter.release(System.nanoTime(), false);
+        }
+        assertTrue(limiter.tryAcquire(0.5));
+        assertFalse(limiter.tryAcquire(0.5));
+
+        assertEquals(3, limiter.getLimit());
+        assertEquals(7, limiter.getAccepted());
+        assertEquals(1, limiter.getRejected());
+    }
+}
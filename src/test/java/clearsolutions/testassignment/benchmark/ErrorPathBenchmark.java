@@ -0,0 +1,107 @@
+package clearsolutions.testassignment.benchmark;
+
+import clearsolutions.testassignment.controller.UserController;
+import clearsolutions.testassignment.controller.advice.RestControllerAdvice;
+import clearsolutions.testassignment.exception.ApiException;
+import clearsolutions.testassignment.exception.BadTimeRangeException;
+import clearsolutions.testassignment.exception.UserNotFoundException;
+import clearsolutions.testassignment.exception.error.ApiError;
+import clearsolutions.testassignment.json.ApiErrorJsonComponent;
+import clearsolutions.testassignment.json.UserJsonComponent;
+import clearsolutions.testassignment.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a request mix in which {@code errorRate} of the requests fail, split evenly between validation failures,
+ * unknown users and bad search ranges. Each request goes through the controller advice and is serialized the way
+ * the application would write it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final int MIX_SIZE = 1024;
+
+    private static final int OK = 0;
+    private static final int INVALID = 1;
+    private static final int NOT_FOUND = 2;
+    private static final int BAD_RANGE = 3;
+
+    @Param({"0.0", "0.1", "0.5", "1.0"})
+    public double errorRate;
+
+    private final RestControllerAdvice advice = new RestControllerAdvice();
+    private final WebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+    private ObjectMapper mapper;
+    private MethodParameter createUserBody;
+    private User user;
+    private User invalidUser;
+    private int[] mix;
+    private int next;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        mapper = new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(new SimpleModule()
+                .addSerializer(User.class, new UserJsonComponent.Serializer())
+                .addSerializer(ApiError.class, new ApiErrorJsonComponent.Serializer()));
+        createUserBody = new MethodParameter(UserController.class.getMethod("createUser", User.class, String.class), 0);
+        user = new User.Builder()
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(new Date(631_152_000_000L))
+                .build();
+        invalidUser = new User.Builder().email("not-an-email").firstName("John").build();
+
+        Random random = new Random(42);
+        mix = new int[MIX_SIZE];
+        for (int i = 0; i < MIX_SIZE; i++) {
+            mix[i] = random.nextDouble() < errorRate ? 1 + random.nextInt(3) : OK;
+        }
+    }
+
+    @Benchmark
+    public byte[] request() throws Exception {
+        int outcome = mix[next++ & (MIX_SIZE - 1)];
+        Object body = switch (outcome) {
+            case INVALID -> advice.handleException(invalid(), request).getBody();
+            case NOT_FOUND -> handle(UserNotFoundException.INSTANCE);
+            case BAD_RANGE -> handle(BadTimeRangeException.INSTANCE);
+            default -> user;
+        };
+        return mapper.writeValueAsBytes(body);
+    }
+
+    private Object handle(ApiException ex) {
+        try {
+            throw ex;
+        } catch (ApiException caught) {
+            return advice.handleApiException(caught).getBody();
+        }
+    }
+
+    private MethodArgumentNotValidException invalid() {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(invalidUser, "user");
+        bindingResult.rejectValue("email", "Email", "Invalid email format");
+        bindingResult.rejectValue("lastName", "NotBlank", "Last name is required");
+        bindingResult.rejectValue("birthDate", "NotNull", "Birth date is required");
+        return new MethodArgumentNotValidException(createUserBody, bindingResult);
+    }
+}
@@ -0,0 +1,82 @@
+package clearsolutions.testassignment.benchmark;
+
+import clearsolutions.testassignment.json.UserJsonComponent;
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetching a page of users by id: one service lookup and one serialization per id, as a client issuing
+ * {@code GET /api/user/{userId}} for each id causes, against a single multi-get. MVC dispatch and HTTP round trips
+ * come on top of the per-id path and are not measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBatchBenchmark {
+
+    private static final int USERS = 100_000;
+
+    @Param({"50", "500"})
+    public int batchSize;
+
+    private UserService userService;
+    private ObjectWriter writer;
+    private int[] ids;
+
+    @Setup
+    public void setUp() {
+        SimpleModule components = new SimpleModule()
+                .addSerializer(User.class, new UserJsonComponent.Serializer())
+                .addSerializer(UserBatch.class, new UserJsonComponent.UserBatchSerializer());
+        writer = new ObjectMapper().registerModule(components).writer();
+
+        userService = new UserService();
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User.Builder()
+                    .email("user" + i + "@example.com")
+                    .firstName("John")
+                    .lastName("Doe")
+                    .birthDate(new Date(631_152_000_000L + i * 86_400_000L))
+                    .address(i + " Main Street")
+                    .phoneNumber("0123456789")
+                    .build());
+        }
+        userService.createUsers(users);
+
+        Random random = new Random(42);
+        ids = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            ids[i] = random.nextInt(USERS);
+        }
+    }
+
+    @Benchmark
+    public void singleGets(Blackhole blackhole) throws IOException {
+        for (int id : ids) {
+            blackhole.consume(writer.writeValueAsBytes(userService.getUserById(id)));
+        }
+    }
+
+    @Benchmark
+    public byte[] multiGet() throws IOException {
+        return writer.writeValueAsBytes(userService.getUsersByIds(ids, UserFieldSet.ALL));
+    }
+}
@@ -0,0 +1,96 @@
+package clearsolutions.testassignment.benchmark;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.store.UserColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Birth date range filter over the whole store: the per-object {@code Date} comparisons of the birth date search
+ * against the column shadow with scalar and Vector API kernels. The column variants produce the selection bitmap
+ * only, the stream variant only counts, so neither side pays for building the result list. Run it with the
+ * {@code vector} profile, otherwise the vector variants fall back to the scalar kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx8g"})
+public class UserColumnScanBenchmark {
+
+    private static final String[] DOMAINS = {"example.com", "example.org", "mail.com", "post.net"};
+
+    @Param({"1000000", "10000000"})
+    public int users;
+
+    private Map<Integer, User> store;
+    private UserColumns scalarColumns;
+    private UserColumns vectorColumns;
+    private Date from;
+    private Date to;
+    private UserFilter birthDateFilter;
+    private UserFilter compoundFilter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        store = new HashMap<>(users * 4 / 3 + 1);
+        for (int i = 0; i < users; i++) {
+            store.put(i, new User.Builder()
+                    .email("user@" + DOMAINS[random.nextInt(DOMAINS.length)])
+                    .birthDate(new Date((random.nextInt(20_000) - 5_000) * 86_400_000L))
+                    .address(random.nextBoolean() ? "1 Main Street" : null)
+                    .build());
+        }
+        scalarColumns = new UserColumns(false);
+        scalarColumns.update(store, scalarColumns.nextStamp());
+        vectorColumns = new UserColumns(true);
+        vectorColumns.update(store, vectorColumns.nextStamp());
+
+        LocalDate fromDate = LocalDate.of(1980, 1, 1);
+        LocalDate toDate = LocalDate.of(1999, 12, 31);
+        from = new Date(fromDate.minusDays(1).toEpochDay() * 86_400_000L);
+        to = new Date(toDate.plusDays(1).toEpochDay() * 86_400_000L);
+        birthDateFilter = new UserFilter(fromDate, toDate, null, null, null);
+        compoundFilter = new UserFilter(fromDate, toDate, "example.com", UserFieldSet.parse("address"), null);
+    }
+
+    @Benchmark
+    public long streamFilter() {
+        return store.values().stream()
+                .filter(user -> user.getBirthDate().after(from) && user.getBirthDate().before(to))
+                .count();
+    }
+
+    @Benchmark
+    public long[] scalarColumns() {
+        return scalarColumns.select(birthDateFilter);
+    }
+
+    @Benchmark
+    public long[] vectorColumns() {
+        return vectorColumns.select(birthDateFilter);
+    }
+
+    @Benchmark
+    public long streamCompoundFilter() {
+        return store.values().stream()
+                .filter(user -> user.getBirthDate().after(from) && user.getBirthDate().before(to)
+                        && user.getEmail().endsWith("@example.com") && user.getAddress() != null)
+                .count();
+    }
+
+    @Benchmark
+    public long[] vectorCompoundColumns() {
+        return vectorColumns.select(compoundFilter);
+    }
+}
@@ -0,0 +1,82 @@
+package clearsolutions.testassignment.benchmark;
+
+import clearsolutions.testassignment.config.BinaryFormatsConfig;
+import clearsolutions.testassignment.model.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU and bytes on the wire of a {@code /api/user/all} style payload per content type.
+ * Payload sizes, raw and gzip-compressed, are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPayloadFormatBenchmark {
+
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"1", "1000"})
+    public int users;
+
+    private ObjectMapper mapper;
+    private List<User> payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "smile" -> new ObjectMapper(BinaryFormatsConfig.smileFactory());
+            case "cbor" -> new ObjectMapper(BinaryFormatsConfig.cborFactory());
+            default -> new ObjectMapper();
+        };
+        payload = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            payload.add(new User.Builder()
+                    .email("user" + i + "@example.com")
+                    .firstName("John")
+                    .lastName("Doe")
+                    .birthDate(new Date(631_152_000_000L + i * 86_400_000L))
+                    .address(i + " Main Street, Springfield")
+                    .phoneNumber("0123456789")
+                    .build());
+        }
+        encoded = mapper.writeValueAsBytes(payload);
+        System.out.printf("%n%s, %d users: %d bytes, %d bytes gzipped%n",
+                format, users, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<User> deserialize() throws IOException {
+        return mapper.readValue(encoded, USER_LIST);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
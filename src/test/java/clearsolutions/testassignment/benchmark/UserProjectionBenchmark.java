@@ -0,0 +1,94 @@
+package clearsolutions.testassignment.benchmark;
+
+import clearsolutions.testassignment.json.UserJsonComponent;
+import clearsolutions.testassignment.model.ProjectedUsers;
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserField;
+import clearsolutions.testassignment.model.UserFieldSet;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serialization of a {@code /api/user/all?fields=...} style payload: every field, the precompiled projection
+ * writer, and Jackson's reflective property filter for comparison. Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserProjectionBenchmark {
+
+    @JsonFilter("fields")
+    private abstract static class FilteredUser {
+    }
+
+    @Param({"email", "email,firstName,lastName"})
+    public String fields;
+
+    private ObjectWriter writer;
+    private ObjectWriter filterWriter;
+    private List<User> users;
+    private ProjectedUsers projected;
+
+    @Setup
+    public void setUp() throws IOException {
+        SimpleModule components = new SimpleModule()
+                .addSerializer(User.class, new UserJsonComponent.Serializer())
+                .addSerializer(ProjectedUsers.class, new UserJsonComponent.ProjectedUsersSerializer());
+        writer = new ObjectMapper().registerModule(components).writer();
+
+        UserFieldSet fieldSet = UserFieldSet.parse(fields);
+        Set<String> names = fieldSet.getFields().stream()
+                .map(UserField::getPropertyName)
+                .collect(Collectors.toSet());
+        filterWriter = new ObjectMapper()
+                .addMixIn(User.class, FilteredUser.class)
+                .writer(new SimpleFilterProvider()
+                        .addFilter("fields", SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+
+        users = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            users.add(new User.Builder()
+                    .email("user" + i + "@example.com")
+                    .firstName("John")
+                    .lastName("Doe")
+                    .birthDate(new Date(631_152_000_000L + i * 86_400_000L))
+                    .address(i + " Main Street, Springfield, Apartment " + i + ", Second Floor, Left Door")
+                    .phoneNumber("0123456789")
+                    .build());
+        }
+        projected = new ProjectedUsers(users, fieldSet);
+        System.out.printf("%n%s: %d bytes projected, %d bytes full%n", fields,
+                writer.writeValueAsBytes(projected).length, writer.writeValueAsBytes(users).length);
+    }
+
+    @Benchmark
+    public byte[] full() throws IOException {
+        return writer.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] projection() throws IOException {
+        return writer.writeValueAsBytes(projected);
+    }
+
+    @Benchmark
+    public byte[] reflectiveFilter() throws IOException {
+        return filterWriter.writeValueAsBytes(users);
+    }
+}
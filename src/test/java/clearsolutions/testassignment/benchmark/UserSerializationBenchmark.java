@@ -0,0 +1,64 @@
+package clearsolutions.testassignment.benchmark;
+
+import clearsolutions.testassignment.json.UserJsonComponent;
+import clearsolutions.testassignment.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflective bean (de)serialization of a single {@link User} against the hand-written {@link UserJsonComponent}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSerializationBenchmark {
+
+    @Param({"reflective", "component"})
+    public String codec;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private User user;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        if ("component".equals(codec)) {
+            mapper.registerModule(new SimpleModule()
+                    .addSerializer(User.class, new UserJsonComponent.Serializer())
+                    .addDeserializer(User.class, new UserJsonComponent.Deserializer()));
+        }
+        writer = mapper.writerFor(User.class);
+        reader = mapper.readerFor(User.class);
+        user = new User.Builder()
+                .email("john.doe@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(new Date(631_152_000_000L))
+                .address("1 Main Street, Springfield")
+                .phoneNumber("0123456789")
+                .build();
+        encoded = writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
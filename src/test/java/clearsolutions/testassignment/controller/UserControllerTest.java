@@ -1,29 +1,40 @@
 package clearsolutions.testassignment.controller;
 
+import clearsolutions.testassignment.config.BinaryFormatsConfig;
 import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
 import clearsolutions.testassignment.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.Test;
-import org.junit.runner.RunWith;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@RunWith(SpringRunner.class)
 @WebMvcTest(UserController.class)
+@Import({BinaryFormatsConfig.class, CoalescedJsonWriter.class})
 public class UserControllerTest {
 
     @Autowired
@@ -43,17 +54,40 @@ public class UserControllerTest {
         user.setLastName("Doe");
         user.setBirthDate(new SimpleDateFormat("yyyy-MM-dd").parse("1990-01-01"));
 
-        when(userService.createUser(any(User.class))).thenReturn(user);
+        when(userService.createUser(any(User.class), isNull())).thenReturn(7);
 
         mockMvc.perform(post("/api/user")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(user)))
                 .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/user/7"))
+                .andExpect(jsonPath("$.id").value(7))
                 .andExpect(jsonPath("$.email").value("test@example.com"))
                 .andExpect(jsonPath("$.firstName").value("John"))
                 .andExpect(jsonPath("$.lastName").value("Doe"));
 
-        verify(userService, times(1)).createUser(any(User.class));
+        verify(userService, times(1)).createUser(any(User.class), isNull());
+    }
+
+    @Test
+    public void testCreateUserWithIdempotencyKey() throws Exception {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setBirthDate(new SimpleDateFormat("yyyy-MM-dd").parse("1990-01-01"));
+
+        when(userService.createUser(any(User.class), eq("retry-1"))).thenReturn(3);
+
+        mockMvc.perform(post("/api/user")
+                        .header(UserController.IDEMPOTENCY_KEY, "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(user)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/user/3"))
+                .andExpect(jsonPath("$.id").value(3));
+
+        verify(userService, times(1)).createUser(any(User.class), eq("retry-1"));
     }
 
     @Test
@@ -68,7 +102,8 @@ public class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(user)))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$").value("User age is lower then " + userAgeRestriction));
+                .andExpect(jsonPath("$.status").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.message").value("User age is lower then " + userAgeRestriction));
 
         verifyNoInteractions(userService);
     }
@@ -151,7 +186,8 @@ public class UserControllerTest {
                         .param("from", new SimpleDateFormat("yyyy-MM-dd").format(from))
                         .param("to", new SimpleDateFormat("yyyy-MM-dd").format(to)))
                 .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$").value("Bad time range"));
+                .andExpect(jsonPath("$.status").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.message").value("Bad time range"));
     }
 
     @Test
@@ -189,6 +225,115 @@ public class UserControllerTest {
         verify(userService, times(1)).getUserById(eq(userId));
     }
 
+    @Test
+    public void testGetUserByIdWithFields() throws Exception {
+        Integer userId = 1;
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setAddress("123 Main St");
+
+        when(userService.getUserById(eq(userId))).thenReturn(user);
+
+        mockMvc.perform(get("/api/user/{userId}", userId).param("fields", "email,lastName"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"email\":\"test@example.com\",\"lastName\":\"Doe\"}", true));
+    }
+
+    @Test
+    public void testGetAllUsersWithFields() throws Exception {
+        User user = new User();
+        user.setEmail("user1@example.com");
+        user.setAddress("123 Main St");
+
+        when(userService.getAllUsers(any(UserFieldSet.class))).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/user/all").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"email\":\"user1@example.com\"}]", true));
+        verify(userService, times(1)).getAllUsers(UserFieldSet.parse("email"));
+    }
+
+    @Test
+    public void testGetAllUsersWithUnknownField() throws Exception {
+        mockMvc.perform(get("/api/user/all").param("fields", "email,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown field requested"));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void testFilterUsers() throws Exception {
+        User user = new User();
+        user.setEmail("user1@example.com");
+        user.setAddress("123 Main St");
+        UserFilter filter = new UserFilter(LocalDate.of(1990, 1, 1), null, "example.com",
+                UserFieldSet.parse("address"), UserFieldSet.parse("phoneNumber"));
+
+        when(userService.filterUsers(eq(filter), eq(UserFieldSet.parse("email")))).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/user/filter")
+                        .param("bornFrom", "1990-01-01")
+                        .param("emailDomain", "example.com")
+                        .param("with", "address")
+                        .param("without", "phoneNumber")
+                        .param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"email\":\"user1@example.com\"}]", true));
+    }
+
+    @Test
+    public void testGetUsersByIds() throws Exception {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setFirstName("John");
+        UserFieldSet fields = UserFieldSet.parse("email");
+
+        when(userService.getUsersByIds(any(int[].class), eq(fields)))
+                .thenReturn(new UserBatch(Map.of(3, user), List.of(8), fields));
+
+        mockMvc.perform(get("/api/user/batch").param("ids", "3,8").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(
+                        "{\"users\":{\"3\":{\"email\":\"test@example.com\"}},\"missingIds\":[8]}", true));
+        mockMvc.perform(post("/api/user/batch").param("fields", "email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[3,8]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missingIds[0]").value(8));
+        verify(userService, times(2)).getUsersByIds(aryEq(new int[]{3, 8}), eq(fields));
+    }
+
+    @Test
+    public void testGetUsersByIdsRejectsTooManyIds() throws Exception {
+        mockMvc.perform(post("/api/user/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(Arrays.toString(new int[1001])))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At most 1000 users can be fetched at once"));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void testGetUserByIdAsSmile() throws Exception {
+        Integer userId = 1;
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+
+        when(userService.getUserById(eq(userId))).thenReturn(user);
+
+        byte[] body = mockMvc.perform(get("/api/user/{userId}", userId)
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(user, new ObjectMapper(new SmileFactory()).readValue(body, User.class));
+    }
+
     @Test
     public void testGetUserByIdNotFound() throws Exception {
 
@@ -196,7 +341,8 @@ public class UserControllerTest {
 
         mockMvc.perform(get("/api/user/{userId}", 0))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$").value("User not found with id: " + 0));
+                .andExpect(jsonPath("$.status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.message").value("User not found"));
         verify(userService, times(1)).getUserById(anyInt());
     }
 }
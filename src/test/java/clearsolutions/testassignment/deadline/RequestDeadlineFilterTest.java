@@ -0,0 +1,48 @@
+package clearsolutions.testassignment.deadline;
+
+import clearsolutions.testassignment.admission.AdmissionEndpoint;
+import clearsolutions.testassignment.util.Deadline;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineFilterTest {
+
+    private final RequestDeadlineFilter filter =
+            new RequestDeadlineFilter(Map.of(AdmissionEndpoint.ALL, Duration.ofSeconds(10)));
+
+    private Deadline deadlineOf(String path, String timeoutHeader) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (timeoutHeader != null) {
+            request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, timeoutHeader);
+        }
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(Deadline.current()));
+        return seen.get();
+    }
+
+    @Test
+    void testHeaderShortensConfiguredTimeout() throws Exception {
+        assertTrue(deadlineOf("/api/user/all", null).remainingNanos() > Duration.ofSeconds(5).toNanos());
+        assertTrue(deadlineOf("/api/user/all", "100").remainingNanos() <= Duration.ofMillis(100).toNanos());
+        assertSame(Deadline.NONE, deadlineOf("/api/user/1", null));
+        assertSame(Deadline.NONE, deadlineOf("/api/user/1", "-5"));
+    }
+
+    @Test
+    void testOversizedHeaderIsCapped() throws Exception {
+        Deadline deadline = deadlineOf("/api/user/1", String.valueOf(Long.MAX_VALUE));
+
+        assertTrue(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingNanos() <= RequestDeadlineFilter.MAX_REQUESTED_TIMEOUT.toNanos());
+        assertTrue(deadlineOf("/api/user/all", String.valueOf(Long.MAX_VALUE)).remainingNanos()
+                <= Duration.ofSeconds(10).toNanos());
+    }
+}
@@ -0,0 +1,170 @@
+package clearsolutions.testassignment.json;
+
+import clearsolutions.testassignment.exception.error.ApiError;
+import clearsolutions.testassignment.exception.error.ApiValidationError;
+import clearsolutions.testassignment.model.CreatedUser;
+import clearsolutions.testassignment.model.ProjectedUser;
+import clearsolutions.testassignment.model.ProjectedUsers;
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserField;
+import clearsolutions.testassignment.model.UserFieldSet;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonComponentsTest {
+
+    private static final SimpleModule COMPONENTS = new SimpleModule()
+            .addSerializer(User.class, new UserJsonComponent.Serializer())
+            .addDeserializer(User.class, new UserJsonComponent.Deserializer())
+            .addSerializer(ProjectedUser.class, new UserJsonComponent.ProjectedUserSerializer())
+            .addSerializer(ProjectedUsers.class, new UserJsonComponent.ProjectedUsersSerializer())
+            .addSerializer(UserBatch.class, new UserJsonComponent.UserBatchSerializer())
+            .addSerializer(CreatedUser.class, new UserJsonComponent.CreatedUserSerializer())
+            .addSerializer(ApiError.class, new ApiErrorJsonComponent.Serializer())
+            .addSerializer(ApiValidationError.class, new ApiErrorJsonComponent.ValidationErrorSerializer());
+
+    private static ObjectMapper reflective(String timeZone) {
+        return new ObjectMapper().registerModule(new JavaTimeModule()).setTimeZone(TimeZone.getTimeZone(timeZone));
+    }
+
+    private static ObjectMapper generated(String timeZone) {
+        return reflective(timeZone).registerModule(COMPONENTS);
+    }
+
+    @Test
+    void testUserOutputMatchesReflectiveSerializer() throws Exception {
+        Random random = new Random(42);
+        for (String timeZone : new String[]{"UTC", "Europe/Kyiv"}) {
+            ObjectMapper reflective = reflective(timeZone);
+            ObjectMapper generated = generated(timeZone);
+            for (int i = 0; i < 10_000; i++) {
+                User user = new User.Builder()
+                        .email(i % 5 == 0 ? null : "user\"" + i + "@example.com")
+                        .firstName("Jörg")
+                        .lastName("Doe")
+                        .birthDate(i % 11 == 0 ? null : new Date(random.nextLong() % 300_000_000_000_000L))
+                        .address(i % 2 == 0 ? null : "1 Main St")
+                        .phoneNumber("0123456789")
+                        .build();
+
+                byte[] expected = reflective.writeValueAsBytes(user);
+                assertArrayEquals(expected, generated.writeValueAsBytes(user));
+                assertEquals(reflective.readValue(expected, User.class), generated.readValue(expected, User.class));
+            }
+        }
+    }
+
+    @Test
+    void testUserOutputHonoursInclusion() throws Exception {
+        User user = new User.Builder().email("").firstName("John").lastName("Doe").build();
+        for (JsonInclude.Include inclusion : JsonInclude.Include.values()) {
+            if (inclusion == JsonInclude.Include.CUSTOM) {
+                continue;
+            }
+            assertEquals(reflective("UTC").setSerializationInclusion(inclusion).writeValueAsString(user),
+                    generated("UTC").setSerializationInclusion(inclusion).writeValueAsString(user));
+        }
+    }
+
+    @Test
+    void testProjectionWritesSelectedFieldsOnly() throws Exception {
+        ObjectMapper reflective = reflective("UTC");
+        ObjectMapper generated = generated("UTC");
+        User user = new User.Builder()
+                .email("john@example.com")
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(new Date(631_152_000_000L))
+                .address("1 Main St")
+                .build();
+        for (int mask = 0; mask < UserFieldSet.count(); mask++) {
+            UserFieldSet fields = UserFieldSet.ofMask(mask);
+            ObjectNode expected = reflective.valueToTree(user);
+            expected.retain(fields.getFields().stream().map(UserField::getPropertyName).toList());
+
+            assertEquals(reflective.writeValueAsString(expected),
+                    generated.writeValueAsString(new ProjectedUser(user, fields)));
+            assertEquals("[" + reflective.writeValueAsString(expected) + "]",
+                    generated.writeValueAsString(new ProjectedUsers(List.of(user), fields)));
+        }
+        assertEquals(UserFieldSet.ofMask(0b111), UserFieldSet.parse("email, firstName,lastName,"));
+    }
+
+    @Test
+    void testUserBatchKeepsRequestedOrder() throws Exception {
+        ObjectMapper reflective = reflective("UTC");
+        User john = new User.Builder().email("john@example.com").firstName("John").build();
+        User jane = new User.Builder().email("jane@example.com").birthDate(new Date(631_152_000_000L)).build();
+        Map<Integer, User> users = new LinkedHashMap<>();
+        users.put(9, john);
+        users.put(2, jane);
+        UserFieldSet fields = UserFieldSet.parse("email,birthDate");
+
+        ObjectNode expected = reflective.createObjectNode();
+        ObjectNode expectedUsers = expected.putObject("users");
+        for (Map.Entry<Integer, User> entry : users.entrySet()) {
+            ObjectNode user = reflective.valueToTree(entry.getValue());
+            user.retain(fields.getFields().stream().map(UserField::getPropertyName).toList());
+            expectedUsers.set(entry.getKey().toString(), user);
+        }
+        expected.putArray("missingIds").add(4).add(1);
+
+        assertEquals(reflective.writeValueAsString(expected),
+                generated("UTC").writeValueAsString(new UserBatch(users, List.of(4, 1), fields)));
+    }
+
+    @Test
+    void testCreatedUserAddsIdToUserDocument() throws Exception {
+        ObjectMapper reflective = reflective("UTC");
+        User user = new User.Builder().email("john@example.com").birthDate(new Date(631_152_000_000L)).build();
+
+        ObjectNode expected = reflective.createObjectNode().put("id", 7);
+        expected.setAll((ObjectNode) reflective.valueToTree(user));
+
+        assertEquals(reflective.writeValueAsString(expected),
+                generated("UTC").writeValueAsString(new CreatedUser(7, user)));
+    }
+
+    @Test
+    void testLenientDatesMatchReflectiveDeserializer() throws Exception {
+        for (String birthDate : new String[]{"\"1990-01-01\"", "\" 1990-13-01 \"", "\"1990-01-01T10:00\"", "\"\"",
+                "null", "631152000000", "\"1500-03-01\""}) {
+            String json = "{\"email\":\"john@example.com\",\"birthDate\":" + birthDate + "}";
+            assertEquals(reflective("UTC").readValue(json, User.class), generated("UTC").readValue(json, User.class));
+        }
+    }
+
+    @Test
+    void testApiErrorOutputMatchesReflectiveSerializer() throws Exception {
+        for (int hour : new int[]{0, 9, 12, 23}) {
+            ApiError error = new ApiError(HttpStatus.BAD_REQUEST, "Validation error", new RuntimeException("bad"));
+            error.setTimestamp(LocalDateTime.of(2024, 2, 29, hour, 5, 7));
+            error.addValidationErrors(List.of(
+                    new FieldError("user", "birthDate", new Date(0), false, null, null, "Birth date must be in past")));
+            error.addValidationError(List.of(new ObjectError("user", "Passwords do not match")));
+
+            assertArrayEquals(reflective("UTC").writeValueAsBytes(error), generated("UTC").writeValueAsBytes(error));
+        }
+        ApiError empty = new ApiError(HttpStatus.NOT_FOUND);
+        assertArrayEquals(reflective("UTC").writeValueAsBytes(empty), generated("UTC").writeValueAsBytes(empty));
+    }
+}
@@ -0,0 +1,111 @@
+package clearsolutions.testassignment.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms in microseconds. Latency is measured from the time a request was scheduled to
+ * be sent, so a stalled server is charged for the requests queued behind it; service time is measured from the
+ * time it was actually sent.
+ */
+class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void record(Operation operation, int status, long latencyNanos, long serviceNanos) {
+        Stats stat = stats.get(operation);
+        stat.latency.recordValue(Math.min(latencyNanos / 1000, HIGHEST_TRACKABLE_MICROS));
+        stat.serviceTime.recordValue(Math.min(serviceNanos / 1000, HIGHEST_TRACKABLE_MICROS));
+        stat.statuses.computeIfAbsent(status, ignored -> new LongAdder()).increment();
+        if (status != operation.getExpectedStatus()) {
+            stat.errors.increment();
+        }
+    }
+
+    void dropped(Operation operation) {
+        stats.get(operation).dropped.increment();
+    }
+
+    /**
+     * Writes a summary to {@code summary.txt} and stdout, plus the full percentile distribution of each exercised
+     * operation to {@code <operation>.hgrm}, which HdrHistogram's plotter reads.
+     */
+    void write(Path directory, LoadGeneratorOptions options, double elapsedSeconds) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(summary, options, elapsedSeconds);
+        }
+        print(System.out, options, elapsedSeconds);
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            if (entry.getValue().latency.getTotalCount() == 0) {
+                continue;
+            }
+            Path file = directory.resolve(entry.getKey().getKey() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().latency.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private void print(PrintStream out, LoadGeneratorOptions options, double elapsedSeconds) {
+        out.printf("target rate %d req/s, measured %.1f s%n", options.getRate(), elapsedSeconds);
+        out.printf("%-8s %9s %9s %7s %7s %10s", "op", "requests", "req/s", "errors", "dropped", "");
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9s", "p" + (percentile == Math.rint(percentile)
+                    ? String.valueOf((int) percentile) : String.valueOf(percentile)));
+        }
+        out.printf(" %9s  statuses%n", "max");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats stat = entry.getValue();
+            long count = stat.latency.getTotalCount();
+            if (count == 0 && stat.dropped.sum() == 0) {
+                continue;
+            }
+            printRow(out, entry.getKey().getKey(), "latency", count, elapsedSeconds, stat.errors.sum(),
+                    stat.dropped.sum(), stat.latency, stat.statuses.toString());
+            printRow(out, "", "service", count, elapsedSeconds, stat.errors.sum(), stat.dropped.sum(),
+                    stat.serviceTime, "");
+        }
+        out.println("latencies in ms");
+    }
+
+    private static void printRow(PrintStream out, String operation, String kind, long count, double elapsedSeconds,
+                                 long errors, long dropped, Histogram histogram, String statuses) {
+        if (operation.isEmpty()) {
+            out.printf("%-8s %9s %9s %7s %7s %10s", "", "", "", "", "", kind);
+        } else {
+            out.printf("%-8s %9d %9.1f %7d %7d %10s", operation, count, count / elapsedSeconds, errors, dropped,
+                    kind);
+        }
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(" %9.2f  %s%n", histogram.getMaxValue() / 1000.0, statuses);
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+}
@@ -0,0 +1,168 @@
+package clearsolutions.testassignment.loadtest;
+
+import clearsolutions.testassignment.TestAssignmentApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for the user API. Requests are issued at a constant arrival rate regardless of how fast
+ * responses come back, and each latency is measured from the time its request was due, so the numbers do not
+ * suffer from coordinated omission. Only loopback targets are accepted.
+ *
+ * <pre>
+ * mvn -Ploadtest -DskipTests test -Dloadtest.args="--rate=500 --duration=60s --mix=get:80,create:20"
+ * </pre>
+ * Without {@code --target} the application is started in-process on a random localhost port.
+ */
+public final class LoadGenerator {
+
+    private final LoadGeneratorOptions options;
+    private final LatencyReport report = new LatencyReport();
+    private final AtomicInteger userCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Operation[] schedule;
+    private final HttpClient client;
+    private final ExecutorService callbacks;
+
+    private LoadGenerator(LoadGeneratorOptions options) {
+        this.options = options;
+        this.schedule = weightedSchedule(options.getMix());
+        this.callbacks = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-client");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.getTimeout())
+                .executor(callbacks)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorOptions options = LoadGeneratorOptions.parse(args);
+        ConfigurableApplicationContext application = null;
+        URI target = options.getTarget();
+        if (target == null) {
+            List<String> applicationArgs = new ArrayList<>(options.getApplicationArgs());
+            applicationArgs.add("--server.port=0");
+            applicationArgs.add("--server.address=127.0.0.1");
+            application = SpringApplication.run(TestAssignmentApplication.class,
+                    applicationArgs.toArray(String[]::new));
+            target = URI.create("http://127.0.0.1:"
+                    + application.getEnvironment().getProperty("local.server.port") + "/");
+        }
+        try {
+            new LoadGenerator(options).run(target);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private void run(URI target) throws IOException, InterruptedException {
+        preload(target);
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + options.getWarmup().toNanos();
+        long endNanos = measureFromNanos + options.getDuration().toNanos();
+        Random random = new Random();
+
+        System.out.printf("Running %d req/s against %s: %s warmup, %s measured%n",
+                options.getRate(), target, options.getWarmup(), options.getDuration());
+        for (long i = 0; ; i++) {
+            long dueNanos = startNanos + i * periodNanos;
+            if (dueNanos - endNanos >= 0) {
+                break;
+            }
+            for (long wait = dueNanos - System.nanoTime(); wait > 0; wait = dueNanos - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            boolean measured = dueNanos - measureFromNanos >= 0;
+            if (inFlight.get() >= options.getMaxInFlight()) {
+                if (measured) {
+                    report.dropped(operation);
+                }
+                continue;
+            }
+            send(target, operation, dueNanos, measured, random);
+        }
+        awaitInFlight();
+        report.write(options.getOutput(), options, options.getDuration().toNanos() / 1e9);
+        callbacks.shutdownNow();
+    }
+
+    private void send(URI target, Operation operation, long dueNanos, boolean measured, Random random) {
+        HttpRequest request = operation.build(target, userCount.get(), random, options.getTimeout());
+        inFlight.incrementAndGet();
+        long sentNanos = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long doneNanos = System.nanoTime();
+            inFlight.decrementAndGet();
+            int status = response == null ? 0 : response.statusCode();
+            if (status == 201 && operation == Operation.CREATE_USER) {
+                response.headers().firstValue("Location").ifPresent(this::registerCreated);
+            }
+            if (measured) {
+                report.record(operation, status, doneNanos - dueNanos, doneNanos - sentNanos);
+            }
+        });
+    }
+
+    /**
+     * Creates {@code --preload} users so lookups and updates have something to hit.
+     */
+    private void preload(URI target) throws IOException, InterruptedException {
+        Random random = ThreadLocalRandom.current();
+        for (int i = 0; i < options.getPreload(); i++) {
+            HttpRequest request = Operation.CREATE_USER.build(target, 0, random, options.getTimeout());
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Preloading users failed with status " + response.statusCode());
+            }
+            response.headers().firstValue("Location").ifPresent(this::registerCreated);
+        }
+    }
+
+    private void registerCreated(String location) {
+        int id = Integer.parseInt(location.substring(location.lastIndexOf('/') + 1));
+        userCount.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + options.getTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Operation[] weightedSchedule(Map<Operation, Integer> mix) {
+        List<Operation> schedule = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        return schedule.toArray(Operation[]::new);
+    }
+}
@@ -0,0 +1,150 @@
+package clearsolutions.testassignment.loadtest;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadGenerator}, given as {@code --name=value}. Anything not recognised is passed
+ * on to the embedded application when no {@code --target} is set.
+ */
+class LoadGeneratorOptions {
+
+    private URI target;
+    private int rate = 200;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(30);
+    private int preload = 1000;
+    private int maxInFlight = 1000;
+    private Duration timeout = Duration.ofSeconds(10);
+    private Path output = Path.of("target", "loadtest");
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    static LoadGeneratorOptions parse(String[] args) {
+        LoadGeneratorOptions options = new LoadGeneratorOptions();
+        options.mix.put(Operation.GET_USER, 70);
+        options.mix.put(Operation.CREATE_USER, 10);
+        options.mix.put(Operation.UPDATE_USER, 10);
+        options.mix.put(Operation.SEARCH, 9);
+        options.mix.put(Operation.GET_ALL, 1);
+
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg : arg.substring(0, separator);
+            String value = separator < 0 ? "" : arg.substring(separator + 1);
+            switch (name) {
+                case "--target" -> options.target = URI.create(value.endsWith("/") ? value : value + "/");
+                case "--rate" -> options.rate = Integer.parseInt(value);
+                case "--warmup" -> options.warmup = parseDuration(value);
+                case "--duration" -> options.duration = parseDuration(value);
+                case "--preload" -> options.preload = Integer.parseInt(value);
+                case "--max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "--timeout" -> options.timeout = parseDuration(value);
+                case "--output" -> options.output = Path.of(value);
+                case "--mix" -> options.parseMix(value);
+                default -> options.applicationArgs.add(arg);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        if (options.target != null) {
+            requireLoopback(options.target);
+        }
+        return options;
+    }
+
+    /**
+     * Parses weights such as {@code get:70,create:10,update:10,search:9,all:1}. Operations left out get no traffic.
+     */
+    private void parseMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry: " + entry);
+            }
+            mix.put(Operation.fromKey(parts[0]), Integer.parseInt(parts[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+    }
+
+    private static Duration parseDuration(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        if (lower.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        if (lower.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(lower));
+    }
+
+    private static void requireLoopback(URI target) {
+        try {
+            for (InetAddress address : InetAddress.getAllByName(target.getHost())) {
+                if (!address.isLoopbackAddress()) {
+                    throw new IllegalArgumentException("Load tests only run against localhost, got " + target);
+                }
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown host in " + target, e);
+        }
+    }
+
+    URI getTarget() {
+        return target;
+    }
+
+    int getRate() {
+        return rate;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    int getPreload() {
+        return preload;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    Duration getTimeout() {
+        return timeout;
+    }
+
+    Path getOutput() {
+        return output;
+    }
+
+    Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    List<String> getApplicationArgs() {
+        return applicationArgs;
+    }
+}
@@ -0,0 +1,99 @@
+package clearsolutions.testassignment.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Requests the load generator mixes, each against a real {@code /api/user} endpoint.
+ */
+enum Operation {
+
+    GET_USER("get", 200) {
+        @Override
+        HttpRequest.Builder request(URI base, int userCount, Random random) {
+            return HttpRequest.newBuilder(base.resolve("api/user/" + random.nextInt(userCount))).GET();
+        }
+    },
+    CREATE_USER("create", 201) {
+        @Override
+        HttpRequest.Builder request(URI base, int userCount, Random random) {
+            return HttpRequest.newBuilder(base.resolve("api/user"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(userJson(random)));
+        }
+    },
+    UPDATE_USER("update", 200) {
+        @Override
+        HttpRequest.Builder request(URI base, int userCount, Random random) {
+            return HttpRequest.newBuilder(base.resolve("api/user/update/" + random.nextInt(userCount)))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(
+                            "{\"address\":\"" + random.nextInt(1000) + " Main Street\"}"));
+        }
+    },
+    SEARCH("search", 200) {
+        @Override
+        HttpRequest.Builder request(URI base, int userCount, Random random) {
+            LocalDate from = randomBirthDate(random);
+            return HttpRequest.newBuilder(base.resolve("api/user/searchByBirthDate?from=" + from
+                    + "&to=" + from.plusDays(30))).GET();
+        }
+    },
+    GET_ALL("all", 200) {
+        @Override
+        HttpRequest.Builder request(URI base, int userCount, Random random) {
+            return HttpRequest.newBuilder(base.resolve("api/user/all")).GET();
+        }
+    };
+
+    private static final LocalDate OLDEST_BIRTH_DATE = LocalDate.of(1950, 1, 1);
+    private static final int BIRTH_DATE_SPAN_DAYS = 50 * 365;
+
+    private final String key;
+    private final int expectedStatus;
+
+    Operation(String key, int expectedStatus) {
+        this.key = key;
+        this.expectedStatus = expectedStatus;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    int getExpectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * @param userCount number of users known to exist, ids {@code [0, userCount)} are used for lookups
+     */
+    abstract HttpRequest.Builder request(URI base, int userCount, Random random);
+
+    HttpRequest build(URI base, int userCount, Random random, Duration timeout) {
+        return request(base, Math.max(1, userCount), random).timeout(timeout).build();
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+
+    static String userJson(Random random) {
+        int n = random.nextInt(Integer.MAX_VALUE);
+        return "{\"email\":\"load" + n + "@example.com\",\"firstName\":\"Load\",\"lastName\":\"Test\","
+                + "\"birthDate\":\"" + randomBirthDate(random) + "\",\"address\":\"" + n % 1000 + " Main Street\","
+                + "\"phoneNumber\":\"" + String.format("%010d", n) + "\"}";
+    }
+
+    private static LocalDate randomBirthDate(Random random) {
+        return OLDEST_BIRTH_DATE.plusDays(random.nextInt(BIRTH_DATE_SPAN_DAYS));
+    }
+}
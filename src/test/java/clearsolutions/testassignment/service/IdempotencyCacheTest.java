@@ -0,0 +1,53 @@
+package clearsolutions.testassignment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyCache<Integer> cache(int maxEntries) {
+        return new IdempotencyCache<>(maxEntries, Duration.ofSeconds(10), nanoTime::get);
+    }
+
+    @Test
+    void testKeysExpireAfterTtl() {
+        IdempotencyCache<Integer> cache = cache(10);
+
+        assertEquals(1, cache.execute("key", "request", executions::incrementAndGet));
+        nanoTime.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals(1, cache.execute("key", "request", executions::incrementAndGet));
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(2, cache.execute("key", "request", executions::incrementAndGet));
+    }
+
+    @Test
+    void testOldestKeysAreDroppedWhenFull() {
+        IdempotencyCache<Integer> cache = cache(2);
+
+        cache.execute("first", "request", executions::incrementAndGet);
+        cache.execute("second", "request", executions::incrementAndGet);
+        cache.execute("third", "request", executions::incrementAndGet);
+
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.execute("third", "request", executions::incrementAndGet));
+        assertEquals(4, cache.execute("first", "request", executions::incrementAndGet));
+    }
+
+    @Test
+    void testFailedExecutionIsNotRemembered() {
+        IdempotencyCache<Integer> cache = cache(10);
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("key", "request", () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, cache.execute("key", "request", executions::incrementAndGet));
+    }
+}
@@ -0,0 +1,53 @@
+package clearsolutions.testassignment.service;
+
+import clearsolutions.testassignment.model.User;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserOperationEventTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOperationsAreRecorded() throws Exception {
+        UserService userService = new UserService();
+        Path file = tempDir.resolve("operations.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(UserOperationEvent.class);
+            recording.start();
+            int id = userService.createUser(new User.Builder().birthDate(new Date(631_152_000_000L)).build());
+            userService.getUserById(id);
+            userService.getUserById(id + 1);
+            userService.searchUsersByBirthDateRange(new Date(0), new Date(946_684_800_000L));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("clearsolutions.UserOperation"))
+                .collect(Collectors.toMap(event -> event.getString("operation") + ":" + event.getInt("userId"),
+                        Function.identity()));
+
+        assertEquals(List.of("create:0", "getById:0", "getById:1", "searchByBirthDate:-1"),
+                events.keySet().stream().sorted().collect(Collectors.toList()));
+        assertEquals(1, events.get("getById:0").getInt("resultSize"));
+        assertEquals(0, events.get("getById:1").getInt("resultSize"));
+        RecordedEvent search = events.get("searchByBirthDate:-1");
+        assertEquals(1, search.getInt("resultSize"));
+        assertEquals(946_684_800_000L, search.getLong("rangeTo"));
+    }
+}
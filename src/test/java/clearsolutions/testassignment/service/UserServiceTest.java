@@ -1,11 +1,24 @@
 package clearsolutions.testassignment.service;
 
+import clearsolutions.testassignment.exception.DeadlineExceededException;
+import clearsolutions.testassignment.exception.IdempotencyKeyReusedException;
+import clearsolutions.testassignment.exception.UserStoreFullException;
 import clearsolutions.testassignment.model.User;
-import org.junit.Before;
-import org.junit.Test;
+import clearsolutions.testassignment.model.UserBatch;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.capacity.MemoryPressureMonitor;
+import clearsolutions.testassignment.service.capacity.UserCapacity;
+import clearsolutions.testassignment.service.store.UserColumns;
+import clearsolutions.testassignment.util.Deadline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,7 +29,7 @@ public class UserServiceTest {
 
     private UserService userService;
 
-    @Before
+    @BeforeEach
     public void setUp() {
         userService = new UserService();
         userService.setUsers(new HashMap<>());
@@ -41,15 +54,56 @@ public class UserServiceTest {
     public void testCreateUser() throws ParseException {
         User user = createValidUser();
 
-        User createdUser = userService.createUser(user);
+        int createdId = userService.createUser(user);
 
-        assertNotNull(createdUser);
-        assertEquals(user, createdUser);
+        assertEquals(0, createdId);
+        assertEquals(1, userService.createUser(createValidUser()));
 
         // Verify that the user was added to the map
         Map<Integer, User> usersMap = userService.getUsersMap();
-        assertEquals(1, usersMap.size());
-        assertTrue(usersMap.containsValue(createdUser));
+        assertEquals(2, usersMap.size());
+        assertEquals(user, usersMap.get(createdId));
+    }
+
+    @Test
+    public void testCreateUserWithIdempotencyKey() throws ParseException {
+        User user = createValidUser();
+
+        int createdId = userService.createUser(user, "key-1");
+        int retriedId = userService.createUser(createValidUser(), "key-1");
+        int otherId = userService.createUser(createValidUser(), "key-2");
+
+        assertEquals(createdId, retriedId);
+        assertNotEquals(createdId, otherId);
+        assertEquals(2, userService.getUsersMap().size());
+    }
+
+    @Test
+    public void testCreateUserWithReusedIdempotencyKey() throws ParseException {
+        userService.createUser(createValidUser(), "key-1");
+
+        User otherUser = createValidUser();
+        otherUser.setEmail("other@example.com");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> userService.createUser(otherUser, "key-1"));
+        assertEquals(1, userService.getUsersMap().size());
+    }
+
+    @Test
+    public void testCreateUserBeyondCapacity() throws ParseException {
+        userService = new UserService(10, Duration.ofHours(1), Duration.ofHours(1), new UserColumns(false),
+                new UserCapacity(2, Long.MAX_VALUE, new MemoryPressureMonitor(0)));
+        userService.setUsers(new HashMap<>());
+        saveUser(createValidUser());
+
+        assertThrows(UserStoreFullException.class,
+                () -> userService.createUsers(List.of(createValidUser(), createValidUser())));
+        saveUser(createValidUser());
+        assertThrows(UserStoreFullException.class, () -> saveUser(createValidUser()));
+
+        userService.deleteUser(0);
+        saveUser(createValidUser());
+        assertEquals(2, userService.getUsersMap().size());
     }
 
     @Test
@@ -138,6 +192,54 @@ public class UserServiceTest {
         assertTrue(allUsers.contains(user2));
     }
 
+    @Test
+    public void testScanStopsAtExpiredDeadline() throws ParseException {
+        saveUser(createValidUser());
+
+        try (Deadline.Scope ignored = Deadline.after(Duration.ZERO).attach()) {
+            assertThrows(DeadlineExceededException.class, () -> userService.getAllUsers());
+            assertThrows(DeadlineExceededException.class, () -> userService.searchUsersByBirthDateRange(
+                    new SimpleDateFormat("yyyy-MM-dd").parse("1990-01-01"), new Date()));
+        }
+        assertEquals(1, userService.getAllUsers().size());
+    }
+
+    @Test
+    public void testGetUsersByIds() throws ParseException {
+        User user1 = createValidUser();
+        saveUser(user1);
+        User user2 = createValidUser();
+        user2.setEmail("user2@example.com");
+        saveUser(user2);
+
+        UserBatch batch = userService.getUsersByIds(new int[]{1, 5, 0, 1}, UserFieldSet.ALL);
+
+        assertEquals(List.of(1, 0), List.copyOf(batch.users().keySet()));
+        assertEquals(user2, batch.users().get(1));
+        assertEquals(user1, batch.users().get(0));
+        assertEquals(List.of(5), batch.missingIds());
+    }
+
+    @Test
+    public void testFilterUsers() throws ParseException {
+        User user1 = createValidUser();
+        saveUser(user1);
+        User user2 = createValidUser();
+        user2.setEmail("user2@other.org");
+        user2.setAddress(null);
+        saveUser(user2);
+        User user3 = createValidUser();
+        user3.setBirthDate(new SimpleDateFormat("yyyy-MM-dd").parse("1992-02-14"));
+        saveUser(user3);
+        userService.deleteUser(0);
+        userService.updateAllUserFields(1, user1);
+
+        List<User> users = userService.filterUsers(new UserFilter(LocalDate.of(1989, 1, 1),
+                LocalDate.of(1990, 12, 31), "example.com", UserFieldSet.parse("address"), null), UserFieldSet.ALL);
+
+        assertEquals(List.of(user1), users);
+    }
+
     @Test
     public void testGetUserById() throws ParseException {
         User user = createValidUser();
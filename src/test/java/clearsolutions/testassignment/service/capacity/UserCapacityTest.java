@@ -0,0 +1,76 @@
+package clearsolutions.testassignment.service.capacity;
+
+import clearsolutions.testassignment.exception.MemoryPressureException;
+import clearsolutions.testassignment.exception.UserStoreFullException;
+import org.junit.jupiter.api.Test;
+
+import javax.management.Notification;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCapacityTest {
+
+    @Test
+    void testWatchesOnlyTheTenuredPool() {
+        List<String> tenured = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                        && pool.isCollectionUsageThresholdSupported() && pool.getUsage().getMax() > 0)
+                .map(MemoryPoolMXBean::getName)
+                .toList();
+
+        try (MemoryPressureMonitor monitor = new MemoryPressureMonitor(0.99)) {
+            assertFalse(tenured.isEmpty());
+            assertEquals(tenured, monitor.getWatchedPools());
+            assertTrue(monitor.getWatchedPools().stream()
+                    .noneMatch(name -> name.contains("Eden") || name.contains("Survivor")));
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().contains("Eden") || pool.getName().contains("Survivor")) {
+                assertFalse(MemoryPressureMonitor.isTenured(pool), pool.getName());
+            }
+        }
+    }
+
+    @Test
+    void testReportsPressureUntilCollectionUsageDrops() {
+        try (MemoryPressureMonitor monitor = new MemoryPressureMonitor(0.99)) {
+            UserCapacity capacity = new UserCapacity(Integer.MAX_VALUE, Long.MAX_VALUE, monitor);
+            assertFalse(monitor.isUnderPressure());
+
+            monitor.handleNotification(new Notification(
+                    MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED, this, 1), null);
+
+            // the heap of a test JVM is far below 99% after collections, so the next check clears the pressure
+            assertEquals(1, monitor.getPressureEvents());
+            assertFalse(monitor.isUnderPressure());
+            assertDoesNotThrow(() -> capacity.checkCreate(0, 0, 1, 100));
+        }
+    }
+
+    @Test
+    void testRefusesCreatesUnderPressure() {
+        MemoryPressureMonitor underPressure = new MemoryPressureMonitor(0) {
+            @Override
+            public boolean isUnderPressure() {
+                return true;
+            }
+        };
+        UserCapacity capacity = new UserCapacity(Integer.MAX_VALUE, Long.MAX_VALUE, underPressure);
+
+        assertThrows(MemoryPressureException.class, () -> capacity.checkCreate(0, 0, 1, 100));
+    }
+
+    @Test
+    void testLimitsUsersAndBytes() {
+        UserCapacity capacity = new UserCapacity(10, 1000, new MemoryPressureMonitor(0));
+
+        assertDoesNotThrow(() -> capacity.checkCreate(9, 900, 1, 100));
+        assertThrows(UserStoreFullException.class, () -> capacity.checkCreate(9, 900, 2, 10));
+        assertThrows(UserStoreFullException.class, () -> capacity.checkCreate(0, 900, 1, 101));
+    }
+}
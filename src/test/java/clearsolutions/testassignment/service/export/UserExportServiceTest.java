@@ -0,0 +1,128 @@
+package clearsolutions.testassignment.service.export;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExportServiceTest {
+
+    @TempDir
+    Path exportDir;
+
+    private UserService userService;
+    private UserExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+        exportService = new UserExportService(userService, Duration.ofHours(1));
+        exportService.setExportDir(exportDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.shutdown();
+    }
+
+    private static User createValidUser(String email, String birthDate) throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setBirthDate(format.parse(birthDate));
+        user.setAddress("123 Main St, Apt \"4\"");
+        return user;
+    }
+
+    @Test
+    void testCsvExport() throws Exception {
+        userService.createUser(createValidUser("first@example.com", "1990-01-01"));
+        userService.createUser(createValidUser("second@example.com", "1985-12-31"));
+
+        ExportFile export = exportService.export(ExportFormat.CSV);
+
+        assertEquals(2, export.getRows());
+        Path file = exportService.findExport(export.getName());
+        assertNotNull(file);
+        assertEquals(export.getSize(), Files.size(file));
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(List.of(
+                UserSnapshotWriter.CSV_HEADER,
+                "0,first@example.com,John,Doe,1990-01-01,\"123 Main St, Apt \"\"4\"\"\",",
+                "1,second@example.com,John,Doe,1985-12-31,\"123 Main St, Apt \"\"4\"\"\","), lines);
+    }
+
+    @Test
+    void testBinaryExport() throws Exception {
+        userService.createUser(createValidUser("first@example.com", "1970-01-02"));
+
+        ExportFile export = exportService.export(ExportFormat.BINARY);
+
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(exportService.findExport(export.getName())));
+        byte[] magic = new byte[4];
+        content.get(magic);
+        assertArrayEquals(UserSnapshotWriter.MAGIC, magic);
+        assertEquals(UserSnapshotWriter.VERSION, content.getInt());
+        assertEquals(1, content.getInt());
+        assertEquals(0, content.getInt());
+        assertEquals(1, content.getInt());
+
+        byte[] email = "first@example.com".getBytes(StandardCharsets.UTF_8);
+        assertEquals(0, content.get());
+        assertEquals(email.length, content.getInt());
+        assertEquals(email.length, content.getInt());
+        byte[] data = new byte[email.length];
+        content.get(data);
+        assertArrayEquals(email, data);
+    }
+
+    @Test
+    void testFindExportRejectsUnknownNames() throws IOException {
+        Files.createFile(exportDir.resolve("secret.csv"));
+
+        assertNull(exportService.findExport("secret.csv"));
+        assertNull(exportService.findExport("../users-1.csv"));
+        assertNull(exportService.findExport("users-404.csv"));
+    }
+
+    @Test
+    void testEvictsExportsPastTheirTtl() throws Exception {
+        userService.createUser(createValidUser("first@example.com", "1990-01-01"));
+        ExportFile export = exportService.export(ExportFormat.CSV);
+        Path file = exportService.findExport(export.getName());
+        Path failed = Files.writeString(exportDir.resolve("users-123.tmp"), "partial");
+        Path unrelated = Files.writeString(exportDir.resolve("secret.csv"), "keep");
+        Instant old = Instant.now().minus(Duration.ofHours(2));
+        Files.setLastModifiedTime(failed, FileTime.from(old));
+        Files.setLastModifiedTime(unrelated, FileTime.from(old));
+
+        exportService.evictExpired(Instant.now());
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(failed));
+        assertTrue(Files.exists(unrelated));
+
+        exportService.evictExpired(Instant.now().plus(Duration.ofHours(2)));
+        assertFalse(Files.exists(file));
+        assertNull(exportService.findExport(export.getName()));
+    }
+}
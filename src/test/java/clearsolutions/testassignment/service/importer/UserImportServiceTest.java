@@ -0,0 +1,94 @@
+package clearsolutions.testassignment.service.importer;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UserService userService;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService();
+        importService = new UserImportService(userService,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper());
+        importService.setLimits(18, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    private static ImportJob awaitCompletion(ImportJob job) throws InterruptedException {
+        for (int i = 0; i < 500 && job.getStatus() == ImportJob.Status.RUNNING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        return job;
+    }
+
+    @Test
+    void testCsvImport() throws Exception {
+        StringBuilder csv = new StringBuilder("id,email,firstName,lastName,birthDate,address,phoneNumber\r\n");
+        for (int i = 0; i < 50; i++) {
+            csv.append(i).append(",user").append(i).append("@example.com,John,Doe,1990-01-01,\"1 Main St, Apt 2\",\r\n");
+        }
+        csv.append("50,bad-email,John,Doe,1990-01-01,,\r\n");
+        csv.append("51,young@example.com,John,Doe,2020-01-01,,\r\n");
+        csv.append("52,broken@example.com,John,Doe,01/01/1990,,\r\n");
+        Path file = tempDir.resolve("users.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        ImportJob job = awaitCompletion(importService.startImport(file, ImportFormat.CSV, false));
+
+        assertEquals(50, job.getImportedRows());
+        assertEquals(3, job.getRejectedRows());
+        assertEquals(Files.size(file), job.getProcessedBytes());
+        List<String> reasons = job.getRejections().stream().map(RejectedRow::getReason).collect(Collectors.toList());
+        assertTrue(reasons.contains("email: Invalid email format"));
+        assertTrue(reasons.contains("User age is lower then 18"));
+        assertTrue(reasons.stream().anyMatch(reason -> reason.startsWith("Malformed record")));
+
+        List<User> users = userService.getAllUsers();
+        assertEquals(50, users.size());
+        assertTrue(users.stream().allMatch(user -> "1 Main St, Apt 2".equals(user.getAddress())));
+    }
+
+    @Test
+    void testNdjsonImport() throws Exception {
+        String ndjson = """
+                {"email":"first@example.com","firstName":"John","lastName":"Doe","birthDate":"1990-01-01"}
+                {"email":"second@example.com","firstName":"Jane","lastName":"Doe","birthDate":"1991-02-03"}
+                {"email":"second@example.com","firstName":"Jane"
+                """;
+        Path file = tempDir.resolve("users.ndjson");
+        Files.writeString(file, ndjson, StandardCharsets.UTF_8);
+
+        ImportJob job = awaitCompletion(importService.startImport(file, ImportFormat.NDJSON, false));
+
+        assertEquals(2, job.getImportedRows());
+        assertEquals(1, job.getRejectedRows());
+        assertEquals(1.0, job.getProgress());
+        assertEquals(2, userService.getAllUsers().size());
+        assertSame(job, importService.getJob(job.getId()));
+    }
+}
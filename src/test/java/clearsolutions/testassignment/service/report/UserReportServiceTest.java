@@ -0,0 +1,197 @@
+package clearsolutions.testassignment.service.report;
+
+import clearsolutions.testassignment.admission.Priority;
+import clearsolutions.testassignment.exception.ReportQueueFullException;
+import clearsolutions.testassignment.json.UserJsonComponent;
+import clearsolutions.testassignment.model.ProjectedUser;
+import clearsolutions.testassignment.model.ProjectedUsers;
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.service.UserService;
+import clearsolutions.testassignment.util.Deadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserReportServiceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(User.class, new UserJsonComponent.Serializer())
+            .addSerializer(ProjectedUser.class, new UserJsonComponent.ProjectedUserSerializer())
+            .addSerializer(ProjectedUsers.class, new UserJsonComponent.ProjectedUsersSerializer()));
+
+    @TempDir
+    Path resultDir;
+
+    private final UserService userService = new UserService();
+    private UserReportService reportService;
+
+    @AfterEach
+    void tearDown() {
+        reportService.shutdown();
+    }
+
+    private UserReportService createService(int workers, int maxQueued, Duration maxRunTime, Duration maxCpuTime) {
+        reportService = new UserReportService(userService, OBJECT_MAPPER, resultDir, workers, maxQueued,
+                maxRunTime, maxCpuTime, Duration.ofHours(1));
+        return reportService;
+    }
+
+    private static ReportJob awaitFinish(ReportJob job) throws InterruptedException {
+        for (int i = 0; i < 500 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(job.getFinishedAt());
+        return job;
+    }
+
+    private static ReportQuery blockingQuery(CountDownLatch release) {
+        return new ReportQuery(ReportQuery.Kind.ALL, null, userService -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of();
+        });
+    }
+
+    private static User createUser(String email) {
+        return new User.Builder()
+                .email(email)
+                .firstName("John")
+                .lastName("Doe")
+                .birthDate(new Date(631152000000L))
+                .build();
+    }
+
+    @Test
+    void testWritesSameJsonAsSynchronousEndpoint() throws Exception {
+        for (int i = 0; i < 10_000; i++) {
+            userService.createUser(createUser("user" + i + "@example.com"));
+        }
+        createService(1, 10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        ReportJob all = awaitFinish(reportService.submit(ReportQuery.all(null), Priority.NORMAL));
+        UserFieldSet fields = UserFieldSet.parse("email");
+        ReportJob projected = awaitFinish(reportService.submit(ReportQuery.all(fields), Priority.NORMAL));
+
+        assertEquals(ReportJob.Status.COMPLETED, all.getStatus());
+        assertEquals(10_000, all.getRows());
+        Path file = reportService.findResult(all);
+        assertEquals(all.getSize(), Files.size(file));
+        assertEquals(OBJECT_MAPPER.writeValueAsString(userService.getAllUsers()), Files.readString(file));
+        assertEquals(OBJECT_MAPPER.writeValueAsString(new ProjectedUsers(userService.getAllUsers(fields), fields)),
+                Files.readString(reportService.findResult(projected)));
+    }
+
+    @Test
+    void testRunsQueuedJobsByPriority() throws Exception {
+        createService(1, 10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        List<Priority> order = new CopyOnWriteArrayList<>();
+        reportService.submit(blockingQuery(release), Priority.CRITICAL);
+
+        ReportJob[] queued = new ReportJob[3];
+        Priority[] priorities = {Priority.SHEDDABLE, Priority.NORMAL, Priority.CRITICAL};
+        for (int i = 0; i < priorities.length; i++) {
+            Priority priority = priorities[i];
+            queued[i] = reportService.submit(new ReportQuery(ReportQuery.Kind.ALL, null, userService -> {
+                order.add(priority);
+                return List.of();
+            }), priority);
+        }
+        assertEquals(ReportJob.Status.QUEUED, queued[0].getStatus());
+        release.countDown();
+        for (ReportJob job : queued) {
+            awaitFinish(job);
+        }
+
+        assertEquals(List.of(Priority.CRITICAL, Priority.NORMAL, Priority.SHEDDABLE), order);
+    }
+
+    @Test
+    void testRefusesJobsBeyondQueueCapacity() throws Exception {
+        createService(1, 1, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        ReportJob running = reportService.submit(blockingQuery(release), Priority.NORMAL);
+        ReportJob queued = reportService.submit(blockingQuery(release), Priority.NORMAL);
+
+        assertThrows(ReportQueueFullException.class,
+                () -> reportService.submit(ReportQuery.all(null), Priority.CRITICAL));
+
+        assertTrue(reportService.delete(queued.getId()));
+        assertEquals(ReportJob.Status.CANCELLED, queued.getStatus());
+        assertNull(reportService.getJob(queued.getId()));
+        ReportJob accepted = reportService.submit(ReportQuery.all(null), Priority.NORMAL);
+        release.countDown();
+        assertEquals(ReportJob.Status.COMPLETED, awaitFinish(running).getStatus());
+        assertEquals(ReportJob.Status.COMPLETED, awaitFinish(accepted).getStatus());
+    }
+
+    @Test
+    void testStopsJobsAtTimeLimit() throws Exception {
+        createService(1, 10, Duration.ofMillis(50), Duration.ofMinutes(1));
+
+        ReportJob job = awaitFinish(reportService.submit(new ReportQuery(ReportQuery.Kind.ALL, null, userService -> {
+            while (true) {
+                Deadline.current().check();
+                Thread.onSpinWait();
+            }
+        }), Priority.NORMAL));
+
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertEquals("Time limit exceeded", job.getFailure());
+    }
+
+    @Test
+    void testStopsJobsAtCpuLimit() throws Exception {
+        createService(1, 10, Duration.ofMinutes(1), Duration.ofMillis(10));
+        ReportJob job = reportService.submit(new ReportQuery(ReportQuery.Kind.ALL, null, userService -> {
+            while (true) {
+                Deadline.current().check();
+                Thread.onSpinWait();
+            }
+        }), Priority.NORMAL);
+
+        for (int i = 0; i < 500 && job.getFinishedAt() == null; i++) {
+            Thread.sleep(10);
+            reportService.enforceCpuLimits();
+        }
+
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertEquals("CPU time limit exceeded", job.getFailure());
+        assertTrue(job.getCpuTimeMillis() >= 10);
+    }
+
+    @Test
+    void testEvictsExpiredResults() throws Exception {
+        createService(1, 10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        ReportJob job = awaitFinish(reportService.submit(ReportQuery.all(null), Priority.NORMAL));
+        Path file = reportService.findResult(job);
+        Path orphan = Files.writeString(resultDir.resolve("report-orphan.json"), "[]");
+        Files.setLastModifiedTime(orphan, FileTime.from(Instant.now().minusSeconds(7200)));
+
+        reportService.evictExpired(Instant.now());
+        assertSame(job, reportService.getJob(job.getId()));
+        assertFalse(Files.exists(orphan));
+
+        reportService.evictExpired(job.getExpiresAt());
+        assertNull(reportService.getJob(job.getId()));
+        assertFalse(Files.exists(file));
+    }
+}
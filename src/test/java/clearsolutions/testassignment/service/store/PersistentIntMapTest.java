@@ -0,0 +1,55 @@
+package clearsolutions.testassignment.service.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntMapTest {
+
+    private static Map<Integer, String> contents(PersistentIntMap<String> map) {
+        Map<Integer, String> contents = new HashMap<>();
+        map.forEach((key, value) -> assertNull(contents.put(key, value)));
+        return contents;
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomUpdates() {
+        Random random = new Random(42);
+        Map<Integer, String> expected = new HashMap<>();
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextBoolean() ? random.nextInt(5_000) : random.nextInt();
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, "v" + i);
+                map = map.put(key, "v" + i);
+            }
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, contents(map));
+        for (int key : expected.keySet().toArray(new Integer[0])) {
+            map = map.remove(key);
+        }
+        assertTrue(map.isEmpty());
+        assertEquals(Map.of(), contents(map));
+    }
+
+    @Test
+    void testOldVersionsAreUnaffectedByUpdates() {
+        PersistentIntMap<String> first = PersistentIntMap.<String>empty().put(1, "one").put(33, "thirty-three");
+        PersistentIntMap<String> second = first.put(1, "uno").remove(33).put(-1, "minus one");
+
+        assertEquals(Map.of(1, "one", 33, "thirty-three"), contents(first));
+        assertEquals(Map.of(1, "uno", -1, "minus one"), contents(second));
+        assertSame(second, second.remove(42));
+        assertSame(second, second.put(1, second.get(1)));
+    }
+}
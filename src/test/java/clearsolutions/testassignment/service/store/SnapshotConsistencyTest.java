@@ -0,0 +1,102 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scans run against writers that insert users in batches and rewrite users in place. Every scan must see whole
+ * batches only and every user as written by a single update.
+ */
+class SnapshotConsistencyTest {
+
+    private static final int BATCH_SIZE = 10;
+    private static final int BATCHES = 2_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotUserMapScansAreConsistent() throws Exception {
+        assertScansAreConsistent(new SnapshotUserMap());
+    }
+
+    @Test
+    void testTieredUserStoreScansAreConsistent() throws Exception {
+        try (TieredUserStore store = new TieredUserStore(tempDir, 64, 1.0)) {
+            assertScansAreConsistent(store);
+        }
+    }
+
+    private static User user(String version) {
+        return new User.Builder()
+                .email(version + "@example.com")
+                .firstName(version)
+                .lastName(version)
+                .birthDate(new Date(0))
+                .build();
+    }
+
+    private static void assertScansAreConsistent(Map<Integer, User> users) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<?> inserts = executor.submit(() -> {
+                for (int batch = 0; batch < BATCHES; batch++) {
+                    Map<Integer, User> newUsers = new HashMap<>();
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        newUsers.put(batch * BATCH_SIZE + i, user("created"));
+                    }
+                    users.putAll(newUsers);
+                }
+                return null;
+            });
+            Future<?> updates = executor.submit(() -> {
+                Random random = new Random(42);
+                for (int update = 0; writing.get(); update++) {
+                    String version = "updated" + update;
+                    users.computeIfPresent(random.nextInt(BATCHES * BATCH_SIZE), (id, existing) -> user(version));
+                }
+                return null;
+            });
+            List<Future<Integer>> scans = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                scans.add(executor.submit(() -> {
+                    int completed = 0;
+                    while (writing.get()) {
+                        Set<Integer> ids = new HashSet<>();
+                        users.forEach((id, user) -> {
+                            assertTrue(ids.add(id), "duplicate id " + id);
+                            assertEquals(user.getFirstName(), user.getLastName());
+                            assertEquals(user.getFirstName() + "@example.com", user.getEmail());
+                        });
+                        assertEquals(0, ids.size() % BATCH_SIZE, "partial batch in a scan of " + ids.size());
+                        for (int id : ids) {
+                            assertTrue(ids.contains(id - id % BATCH_SIZE), "batch of " + id + " is incomplete");
+                        }
+                        completed++;
+                    }
+                    return completed;
+                }));
+            }
+
+            inserts.get(60, TimeUnit.SECONDS);
+            writing.set(false);
+            updates.get(10, TimeUnit.SECONDS);
+            for (Future<Integer> scan : scans) {
+                assertTrue(scan.get(10, TimeUnit.SECONDS) > 0);
+            }
+            assertEquals(BATCHES * BATCH_SIZE, users.size());
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredUserStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TieredUserStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new TieredUserStore(tempDir, 2, 1.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    private static User user(int i) {
+        return new User.Builder()
+                .email("user" + i + "@example.com")
+                .firstName("J\u00f6hn")
+                .lastName(i % 2 == 0 ? null : "Doe")
+                .birthDate(new Date(631_152_000_000L + i * 86_400_000L))
+                .address(i + " Main Street")
+                .build();
+    }
+
+    @Test
+    void testSpillsEldestUsersToColdTier() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        assertEquals(5, store.size());
+        assertEquals(2, store.getHotSize());
+        assertEquals(3, store.getColdSize());
+        assertEquals(3, store.getSpills());
+        assertTrue(store.containsKey(0));
+        assertEquals(3, store.getColdSize());
+    }
+
+    @Test
+    void testGetPromotesColdUser() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        assertEquals(user(0), store.get(0));
+        assertEquals(1, store.getColdHits());
+        assertEquals(1, store.getPromotions());
+        assertEquals(user(0), store.get(0));
+        assertEquals(1, store.getHotHits());
+        assertNull(store.get(42));
+        assertEquals(1, store.getMisses());
+        assertEquals(5, store.size());
+    }
+
+    @Test
+    void testReferencedHotUsersGetSecondChance() {
+        store.put(0, user(0));
+        store.put(1, user(1));
+
+        store.get(0);
+        store.put(2, user(2));
+
+        assertEquals(1, store.getColdSize());
+        assertEquals(user(0), store.get(0));
+        assertEquals(0, store.getColdHits());
+        assertEquals(user(1), store.get(1));
+        assertEquals(1, store.getColdHits());
+    }
+
+    @Test
+    void testHotHitsDoNotTakeStoreLock() throws Exception {
+        store.put(0, user(0));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            synchronized (store) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        locked.await();
+        try {
+            assertEquals(user(0), CompletableFuture.supplyAsync(() -> store.get(0)).get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            writer.get();
+        }
+    }
+
+    @Test
+    void testComputeIfPresentUpdatesColdUser() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        User updated = store.computeIfPresent(1, (id, existing) -> {
+            User copy = new User(existing);
+            copy.setPhoneNumber("0123456789");
+            return copy;
+        });
+
+        assertEquals("0123456789", updated.getPhoneNumber());
+        assertEquals(updated, store.get(1));
+        assertNull(store.computeIfPresent(42, (id, existing) -> existing));
+        assertEquals(5, store.size());
+    }
+
+    @Test
+    void testForEachReadsBothTiersWithoutPromoting() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        Map<Integer, User> visited = new HashMap<>();
+        store.forEach(visited::put);
+
+        assertEquals(5, visited.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(user(i), visited.get(i));
+        }
+        assertEquals(0, store.getPromotions());
+        assertEquals(3, store.getColdSize());
+    }
+
+    @Test
+    void testForEachDecodesSelectedFieldsOnly() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        Map<Integer, User> visited = new HashMap<>();
+        store.forEach(UserFieldSet.parse("email,address"), visited::put);
+
+        User cold = visited.get(1);
+        assertEquals(user(1).getEmail(), cold.getEmail());
+        assertEquals(user(1).getAddress(), cold.getAddress());
+        assertEquals(user(1).getBirthDate(), cold.getBirthDate());
+        assertNull(cold.getFirstName());
+        assertNull(cold.getLastName());
+        assertEquals(user(4), visited.get(4));
+    }
+
+    @Test
+    void testGetAllReadsBothTiersWithoutPromoting() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        Map<Integer, User> found = new HashMap<>();
+        store.getAll(new int[]{4, 0, 7, 2}, UserFieldSet.ALL, found::put);
+
+        assertEquals(Map.of(0, user(0), 2, user(2), 4, user(4)), found);
+        assertEquals(0, store.getPromotions());
+        assertEquals(1, store.getHotHits());
+        assertEquals(2, store.getColdHits());
+        assertEquals(1, store.getMisses());
+    }
+
+    @Test
+    void testPutAndRemoveReturnPreviousColdUser() {
+        for (int i = 0; i < 5; i++) {
+            store.put(i, user(i));
+        }
+
+        assertEquals(user(0), store.put(0, user(10)));
+        assertEquals(user(1), store.remove(1));
+        assertNull(store.remove(1));
+        assertEquals(4, store.size());
+        assertEquals(user(10), store.get(0));
+    }
+
+    @Test
+    void testCompactsGarbage() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                store.put(i, user(i + round));
+            }
+        }
+
+        assertTrue(store.getCompactions() > 0);
+        assertEquals(20_000, store.size());
+        assertEquals(user(2), store.get(0));
+        assertEquals(user(19_999 + 2), store.get(19_999));
+    }
+}
@@ -0,0 +1,186 @@
+package clearsolutions.testassignment.service.store;
+
+import clearsolutions.testassignment.model.User;
+import clearsolutions.testassignment.model.UserFieldSet;
+import clearsolutions.testassignment.model.UserFilter;
+import clearsolutions.testassignment.service.capacity.UserSizeEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UserColumnsTest {
+
+    private final Map<Integer, User> store = new HashMap<>();
+    private final UserColumns columns = new UserColumns(new ScalarColumnKernels());
+
+    private static User user(String email, String birthDate, String address) {
+        return new User.Builder()
+                .email(email)
+                .firstName("John")
+                .birthDate(birthDate == null ? null : new Date(LocalDate.parse(birthDate).toEpochDay() * 86_400_000L))
+                .address(address)
+                .build();
+    }
+
+    private void put(int id, User user) {
+        store.put(id, user);
+        columns.update(id, user, columns.nextStamp());
+    }
+
+    private void remove(int id) {
+        store.remove(id);
+        columns.update(id, null, columns.nextStamp());
+    }
+
+    private int[] select(LocalDate from, LocalDate to, String domain, String with, String without) {
+        return UserColumns.selectedIds(columns.select(new UserFilter(from, to, domain,
+                with == null ? null : UserFieldSet.parse(with), without == null ? null : UserFieldSet.parse(without))));
+    }
+
+    @Test
+    void testSelectsByBirthDateDomainAndPresence() {
+        put(0, user("a@example.com", "1990-01-01", "1 Main St"));
+        put(1, user("b@Example.COM", "1995-06-15", null));
+        put(2, user("c@other.org", "1990-12-31", "2 Main St"));
+        put(3, user(null, null, null));
+        put(70, user("d@example.com", "2000-02-29", "3 Main St"));
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 70}, select(null, null, null, null, null));
+        assertArrayEquals(new int[]{0, 2}, select(LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31),
+                null, null, null));
+        assertArrayEquals(new int[]{1, 70}, select(LocalDate.of(1991, 1, 1), null, null, null, null));
+        assertArrayEquals(new int[]{0, 1, 2}, select(null, LocalDate.of(1999, 1, 1), null, null, null));
+        assertArrayEquals(new int[]{0, 1, 70}, select(null, null, "EXAMPLE.com", null, null));
+        assertArrayEquals(new int[]{0, 70}, select(null, null, "example.com", "address", null));
+        assertArrayEquals(new int[]{1, 3}, select(null, null, null, null, "address"));
+        assertArrayEquals(new int[0], select(null, null, "unknown.net", null, null));
+        assertEquals(71, columns.getRows());
+        assertEquals(2, columns.getEmailDomains());
+    }
+
+    @Test
+    void testRefreshFollowsStore() {
+        put(0, user("a@example.com", "1990-01-01", null));
+        put(1, user("b@example.com", "1990-01-01", null));
+
+        put(0, user("a@other.org", "1990-01-01", "1 Main St"));
+        remove(1);
+
+        assertArrayEquals(new int[0], select(null, null, "example.com", null, null));
+        assertArrayEquals(new int[]{0}, select(null, null, "other.org", "address", null));
+
+        columns.clear();
+        assertArrayEquals(new int[0], select(null, null, null, null, null));
+    }
+
+    @Test
+    void testAccountsUserSizes() {
+        User small = user("a@example.com", "1990-01-01", null);
+        User large = user("b@example.com", "1990-01-01", "A much longer address, 42 Main Street, Springfield");
+        put(0, small);
+        put(1, small);
+        assertEquals(2, columns.getUsers());
+        assertEquals(2L * UserSizeEstimator.estimate(small), columns.getEstimatedBytes());
+
+        put(1, large);
+        remove(0);
+        assertEquals(1, columns.getUsers());
+        assertEquals(UserSizeEstimator.estimate(large), columns.getEstimatedBytes());
+        assertTrue(UserSizeEstimator.estimate(large) > UserSizeEstimator.estimate(small));
+
+        columns.clear();
+        assertEquals(0, columns.getUsers());
+        assertEquals(0, columns.getEstimatedBytes());
+    }
+
+    @Test
+    void testIgnoresWritesStampedBeforeTheRow() {
+        long first = columns.nextStamp();
+        long second = columns.nextStamp();
+        columns.update(0, user("a@other.org", "1990-01-01", null), second);
+        columns.update(0, user("a@example.com", "1990-01-01", null), first);
+        long beforeRemove = columns.nextStamp();
+        columns.update(1, null, columns.nextStamp());
+        columns.update(1, user("b@example.com", "1990-01-01", null), beforeRemove);
+
+        assertArrayEquals(new int[]{0}, select(null, null, "other.org", null, null));
+        assertArrayEquals(new int[0], select(null, null, "example.com", null, null));
+        assertEquals(1, columns.getUsers());
+    }
+
+    @Test
+    void testConcurrentWritersKeepEveryRow() throws Exception {
+        int threads = 8;
+        int perThread = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        // interleaved ids, so every bitmap word and the growth of the columns are shared
+                        int id = i * threads + offset;
+                        columns.update(id, user("u" + id + "@d" + offset + ".com", "1990-01-01", null),
+                                columns.nextStamp());
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, columns.getUsers());
+        assertEquals(threads * perThread, columns.getRows());
+        assertEquals(threads, columns.getEmailDomains());
+        assertEquals(threads * perThread, select(null, null, null, "email", null).length);
+        assertEquals(perThread, select(null, null, "d3.com", null, null).length);
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        for (int id = 0; id < 5000; id++) {
+            store.put(id, user("u" + id + "@example.com", id % 2 == 0 ? "1990-01-01" : "2000-01-01", null));
+        }
+        columns.update(store, columns.nextStamp());
+
+        int[] selected = select(null, LocalDate.of(1990, 1, 1), null, null, null);
+        assertEquals(2500, selected.length);
+        assertEquals(4998, selected[selected.length - 1]);
+    }
+
+    @Test
+    void testVectorKernelsMatchScalarKernels() {
+        ColumnKernels vector = ColumnKernels.load(true);
+        assumeTrue(!(vector instanceof ScalarColumnKernels), "Vector API kernels are not available");
+        ColumnKernels scalar = new ScalarColumnKernels();
+        Random random = new Random(42);
+        for (int length : new int[]{0, 1, 63, 64, 65, 127, 1000, 4096}) {
+            int[] values = new int[length + 64];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(200) - 100;
+            }
+            values[0] = Integer.MIN_VALUE;
+            values[values.length - 1] = Integer.MAX_VALUE;
+            for (int[] range : new int[][]{{-10, 10}, {5, 5}, {10, -10}, {Integer.MIN_VALUE, 0},
+                    {0, Integer.MAX_VALUE}, {Integer.MIN_VALUE, Integer.MAX_VALUE}}) {
+                long[] expected = new long[(length + 63) >>> 6];
+                long[] actual = new long[expected.length];
+                scalar.selectRange(values, length, range[0], range[1], expected);
+                vector.selectRange(values, length, range[0], range[1], actual);
+                assertArrayEquals(expected, actual, length + " " + range[0] + ".." + range[1]);
+            }
+        }
+    }
+}
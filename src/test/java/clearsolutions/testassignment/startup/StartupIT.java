@@ -0,0 +1,184 @@
+package clearsolutions.testassignment.startup;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Starts the packaged application once as a plain jar and once with the AOT initializers and the AppCDS archive of
+ * the {@code fast-start} profile, reports how long each took to answer its first {@code /api/user/{id}} request and
+ * checks that both answer the same API requests the same way.
+ */
+class StartupIT {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(90);
+    private static final String PROBE_USER = "{\"email\":\"probe@example.com\",\"firstName\":\"Probe\","
+            + "\"lastName\":\"User\",\"birthDate\":\"1990-01-01\",\"phoneNumber\":\"0123456789\"}";
+
+    private static Path jar;
+    private static Path cdsArchive;
+    private static Path report;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @BeforeAll
+    static void locateArtifacts() {
+        assumeTrue(System.getProperty("startup.jar") != null, "run with mvn -Pfast-start verify");
+        jar = Path.of(System.getProperty("startup.jar"));
+        cdsArchive = Path.of(System.getProperty("startup.cds-archive"));
+        report = Path.of(System.getProperty("startup.report"));
+        assertTrue(Files.isRegularFile(jar), "missing " + jar);
+        assertTrue(Files.isRegularFile(cdsArchive), "missing " + cdsArchive);
+    }
+
+    @Test
+    void testOptimizedStartupServesSameApi() throws Exception {
+        StartedApplication plain = start("plain", List.of());
+        List<String> plainTranscript;
+        try {
+            plainTranscript = exercise(plain.base);
+        } finally {
+            plain.stop();
+        }
+
+        StartedApplication optimized = start("optimized",
+                List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Dspring.aot.enabled=true"));
+        List<String> optimizedTranscript;
+        try {
+            optimizedTranscript = exercise(optimized.base);
+        } finally {
+            optimized.stop();
+        }
+
+        Files.writeString(report, String.format("""
+                        mode       first /api/user/{id} response
+                        plain      %6d ms
+                        optimized  %6d ms
+                        speedup    %6.2fx
+                        """, plain.firstResponseMillis, optimized.firstResponseMillis,
+                (double) plain.firstResponseMillis / optimized.firstResponseMillis));
+        assertEquals(plainTranscript, optimizedTranscript);
+    }
+
+    private StartedApplication start(String mode, List<String> jvmOptions) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port, "--server.address=127.0.0.1"));
+        Path log = jar.resolveSibling("startup-" + mode + ".log");
+
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        URI base = URI.create("http://127.0.0.1:" + port + "/");
+        StartedApplication application = new StartedApplication(process, base);
+        try {
+            awaitFirstUserResponse(process, base);
+        } catch (Exception | AssertionError e) {
+            application.stop();
+            throw e;
+        }
+        application.firstResponseMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return application;
+    }
+
+    /**
+     * Creates a user, retrying with the same idempotency key until the server is up, then reads it back.
+     */
+    private void awaitFirstUserResponse(Process process, URI base) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            assertTrue(process.isAlive(), "application exited during startup");
+            try {
+                HttpResponse<String> created = send(HttpRequest.newBuilder(base.resolve("api/user"))
+                        .header("Idempotency-Key", "startup-probe")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(PROBE_USER)));
+                String location = created.headers().firstValue("Location").orElse(null);
+                if (created.statusCode() == 201 && location != null
+                        && send(HttpRequest.newBuilder(base.resolve(location.substring(1))).GET()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no successful /api/user/{id} response within " + STARTUP_TIMEOUT);
+    }
+
+    /**
+     * Runs a fixed sequence of requests and returns status, location and body of each response, with error
+     * timestamps blanked out.
+     */
+    private List<String> exercise(URI base) throws Exception {
+        List<HttpRequest.Builder> requests = List.of(
+                HttpRequest.newBuilder(base.resolve("api/user/0")).GET(),
+                json(base, "api/user").POST(
+                        HttpRequest.BodyPublishers.ofString(PROBE_USER.replace("probe", "second"))),
+                json(base, "api/user/update/1").PUT(HttpRequest.BodyPublishers.ofString("{\"address\":\"1 Main St\"}")),
+                HttpRequest.newBuilder(base.resolve("api/user/searchByBirthDate?from=1980-01-01&to=2000-01-01")).GET(),
+                HttpRequest.newBuilder(base.resolve("api/user/all")).GET(),
+                HttpRequest.newBuilder(base.resolve("api/user/99")).GET(),
+                HttpRequest.newBuilder(base.resolve("api/user/searchByBirthDate?from=2000-01-01&to=1990-01-01")).GET(),
+                json(base, "api/user").POST(
+                        HttpRequest.BodyPublishers.ofString(PROBE_USER.replace("probe@example.com", "invalid"))),
+                json(base, "api/user").POST(HttpRequest.BodyPublishers.ofString(
+                        PROBE_USER.replace("probe", "young").replace("1990-01-01", "2020-01-01"))),
+                HttpRequest.newBuilder(base.resolve("api/user/delete/1")).DELETE());
+
+        List<String> transcript = new ArrayList<>();
+        for (HttpRequest.Builder request : requests) {
+            HttpResponse<String> response = send(request);
+            transcript.add(response.request().method() + " " + response.request().uri().getPath() + " -> "
+                    + response.statusCode() + " " + response.headers().firstValue("Location").orElse("") + " "
+                    + response.body().replaceAll("\"timestamp\":\"[^\"]*\"", "\"timestamp\":\"\""));
+        }
+        return transcript;
+    }
+
+    private static HttpRequest.Builder json(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static final class StartedApplication {
+        private final Process process;
+        private final URI base;
+        private long firstResponseMillis;
+
+        private StartedApplication(Process process, URI base) {
+            this.process = process;
+            this.base = base;
+        }
+
+        private void stop() throws InterruptedException {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
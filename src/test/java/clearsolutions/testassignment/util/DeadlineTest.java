@@ -0,0 +1,71 @@
+package clearsolutions.testassignment.util;
+
+import clearsolutions.testassignment.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineTest {
+
+    @Test
+    void testAttachedDeadlineIsCurrentUntilScopeCloses() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        try (Deadline.Scope ignored = deadline.attach()) {
+            assertSame(deadline, Deadline.current());
+            deadline.check();
+        }
+        assertSame(Deadline.NONE, Deadline.current());
+    }
+
+    @Test
+    void testExpiredOrCancelledDeadlineFailsCheck() {
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(Duration.ZERO).check());
+
+        Deadline cancelled = Deadline.after(Duration.ofMinutes(1));
+        cancelled.cancel();
+        assertTrue(cancelled.isExpired());
+        assertThrows(DeadlineExceededException.class, cancelled::check);
+
+        Deadline.NONE.cancel();
+        assertFalse(Deadline.NONE.isExpired());
+    }
+
+    @Test
+    void testAwaitGivesUpAtDeadline() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        assertThrows(DeadlineExceededException.class, () -> Deadline.after(Duration.ofMillis(10)).await(pending));
+        pending.complete("done");
+        assertEquals("done", Deadline.after(Duration.ofMillis(10)).await(pending));
+    }
+
+    @Test
+    void testSharedDeadlineLastsAsLongAsLatestCaller() {
+        Deadline first = Deadline.after(Duration.ZERO);
+        Deadline shared = Deadline.sharedBy(first);
+        assertTrue(shared.isExpired());
+
+        shared.extendTo(Deadline.after(Duration.ofMinutes(1)));
+        shared.extendTo(first);
+        first.cancel();
+        assertFalse(shared.isExpired());
+
+        shared.extendTo(Deadline.NONE);
+        assertFalse(shared.isBounded());
+        assertFalse(Deadline.NONE.isExpired());
+    }
+
+    @Test
+    void testOversizedTimeoutSaturates() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(Long.MAX_VALUE));
+
+        assertTrue(deadline.isBounded());
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingNanos() > Duration.ofDays(365 * 100).toNanos());
+        assertFalse(Deadline.after(Duration.ofSeconds(Long.MAX_VALUE)).isExpired());
+    }
+}
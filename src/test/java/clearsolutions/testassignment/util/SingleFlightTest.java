@@ -0,0 +1,144 @@
+package clearsolutions.testassignment.util;
+
+import clearsolutions.testassignment.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private List<Future<Integer>> submitWhileBlocked(ExecutorService executor, int callers, CountDownLatch release,
+                                                     Callable<Integer> action) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            try {
+                release.await();
+                return action.call();
+            } catch (Exception e) {
+                throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+            }
+        })));
+        started.await();
+        for (int i = 1; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", executions::incrementAndGet)));
+        }
+        while (singleFlight.getCoalesced() < callers - 1) {
+            Thread.onSpinWait();
+        }
+        return results;
+    }
+
+    @Test
+    void testConcurrentCallersShareOneExecution() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<Integer>> results = submitWhileBlocked(executor, 8, release, executions::incrementAndGet);
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, singleFlight.getExecutions());
+            assertEquals(7, singleFlight.getCoalesced());
+            assertEquals(2, singleFlight.execute("key", executions::incrementAndGet));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsSharedAndNotRemembered() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            IllegalStateException failure = new IllegalStateException("scan failed");
+            List<Future<Integer>> results = submitWhileBlocked(executor, 4, release, () -> {
+                throw failure;
+            });
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                ExecutionException thrown = assertThrows(ExecutionException.class,
+                        () -> result.get(10, TimeUnit.SECONDS));
+                assertSame(failure, thrown.getCause());
+            }
+            assertEquals(1, singleFlight.execute("key", executions::incrementAndGet));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSharedActionOutlivesLeaderDeadline() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<Integer> leader = executor.submit(() -> {
+                try (Deadline.Scope ignored = Deadline.after(Duration.ofMillis(200)).attach()) {
+                    return singleFlight.execute("key", () -> {
+                        started.countDown();
+                        while (release.getCount() > 0) {
+                            Deadline.current().check();
+                            Thread.onSpinWait();
+                        }
+                        return executions.incrementAndGet();
+                    });
+                }
+            });
+            started.await();
+            Future<Integer> follower = executor.submit(() -> {
+                try (Deadline.Scope ignored = Deadline.after(Duration.ofSeconds(10)).attach()) {
+                    return singleFlight.execute("key", executions::incrementAndGet);
+                }
+            });
+            while (singleFlight.getCoalesced() < 1) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(400);
+            release.countDown();
+
+            assertEquals(1, follower.get(10, TimeUnit.SECONDS));
+            ExecutionException thrown = assertThrows(ExecutionException.class,
+                    () -> leader.get(10, TimeUnit.SECONDS));
+            assertSame(DeadlineExceededException.INSTANCE, thrown.getCause());
+            assertEquals(1, singleFlight.getExecutions());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCallerRetriesDeadlineFailureOfAnotherCaller() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<Integer>> results = submitWhileBlocked(executor, 4, release, () -> {
+                throw DeadlineExceededException.INSTANCE;
+            });
+            release.countDown();
+
+            ExecutionException thrown = assertThrows(ExecutionException.class,
+                    () -> results.get(0).get(10, TimeUnit.SECONDS));
+            assertSame(DeadlineExceededException.INSTANCE, thrown.getCause());
+            for (Future<Integer> result : results.subList(1, results.size())) {
+                assertTrue(result.get(10, TimeUnit.SECONDS) > 0);
+            }
+            assertTrue(singleFlight.getExecutions() > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}